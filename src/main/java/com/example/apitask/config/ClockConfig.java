@@ -0,0 +1,20 @@
+package com.example.apitask.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/**
+ * The calendar the streak rules run on. Awarding the daily point, decaying the streak on read and the
+ * nightly reset must all agree on what "today" is, whatever zone the JVM runs in.
+ */
+@Configuration
+public class ClockConfig {
+    @Bean
+    public Clock clock(@Value("${app.time-zone:America/Sao_Paulo}") String zone) {
+        return Clock.system(ZoneId.of(zone));
+    }
+}
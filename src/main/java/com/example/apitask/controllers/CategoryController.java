@@ -2,13 +2,15 @@ package com.example.apitask.controllers;
 
 import com.example.apitask.dtos.categories.CategorieRequestDTO;
 import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.services.CategoryCatalog;
 import com.example.apitask.services.CategoryService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,9 +31,15 @@ public class CategoryController {
 
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<CategoriesResponseDTO>> findAllCategory() {
-        List<CategoriesResponseDTO> categoriesDTOS = categoryService.findAllCategory();
-        return ResponseEntity.status(HttpStatus.OK).body(categoriesDTOS);
+    public ResponseEntity<byte[]> findAllCategory(WebRequest request) {
+        CategoryCatalog.Snapshot catalog = categoryService.catalog();
+        if (request.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(catalog.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.json());
     }
 
     @DeleteMapping("/category/{id}")
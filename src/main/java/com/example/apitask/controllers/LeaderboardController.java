@@ -0,0 +1,34 @@
+package com.example.apitask.controllers;
+
+import com.example.apitask.dtos.leaderboard.LeaderboardEntryDTO;
+import com.example.apitask.services.LeaderboardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/leaderboard")
+@PreAuthorize("hasRole('USER')")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<LeaderboardEntryDTO>> top(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.status(HttpStatus.OK).body(leaderboardService.top(limit));
+    }
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<LeaderboardEntryDTO> rankOf(@PathVariable("userId") UUID userId) {
+        return leaderboardService.rankOf(userId)
+                .map(entry -> ResponseEntity.status(HttpStatus.OK).body(entry))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
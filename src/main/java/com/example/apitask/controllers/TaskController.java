@@ -1,19 +1,31 @@
 package com.example.apitask.controllers;
 
+import com.example.apitask.dtos.tasks.TaskImportReportDTO;
+import com.example.apitask.dtos.tasks.TasksBulkResponseDTO;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
+import com.example.apitask.dtos.tasks.TasksWindowDTO;
 import com.example.apitask.dtos.users.UsersResponseDTO;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.enums.TaskListFilter;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.models.Users;
+import com.example.apitask.services.TaskBulkService;
+import com.example.apitask.services.TaskExportService;
+import com.example.apitask.services.TaskImportService;
 import com.example.apitask.services.TaskService;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.parameters.P;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -24,10 +36,17 @@ import java.util.UUID;
 public class TaskController {
     private final TaskService taskService;
     private final TokenService tokenService;
+    private final TaskBulkService taskBulkService;
+    private final TaskExportService taskExportService;
+    private final TaskImportService taskImportService;
 
-    public TaskController(TaskService taskService, TokenService tokenService) {
+    public TaskController(TaskService taskService, TokenService tokenService, TaskBulkService taskBulkService,
+                          TaskExportService taskExportService, TaskImportService taskImportService) {
         this.taskService = taskService;
         this.tokenService = tokenService;
+        this.taskBulkService = taskBulkService;
+        this.taskExportService = taskExportService;
+        this.taskImportService = taskImportService;
     }
 
     @PostMapping("/create")
@@ -36,12 +55,43 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(tasksResponseDTO);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<TasksBulkResponseDTO> createTasksBulk(@RequestBody List<TasksRequestDTO> tasksRequestDTOS) {
+        TasksBulkResponseDTO response = taskBulkService.createTasks(tasksRequestDTOS);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<TaskImportReportDTO> importTasks(
+            InputStream body,
+            @RequestParam(defaultValue = "NDJSON") TaskExportFormat format,
+            @RequestParam(defaultValue = "0") long resumeFrom,
+            @RequestParam(required = false) Integer batchSize) {
+        // A stopped import is not a server error: the report carries the checkpoint to resume from.
+        TaskImportReportDTO report = taskImportService.importTasks(body, format, resumeFrom, batchSize);
+        return ResponseEntity.status(HttpStatus.OK).body(report);
+    }
+
     @GetMapping("/findAll")
     public ResponseEntity<List<TasksResponseDTO>> findTaskAll() {
         List<TasksResponseDTO> tasksResponseDTOS = taskService.findAllTasks();
         return ResponseEntity.status(HttpStatus.OK).body(tasksResponseDTOS);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(defaultValue = "NDJSON") TaskExportFormat format,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean allUsers) {
+        StreamingResponseBody body = taskExportService.export(format, completed, from, to, allUsers);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/findTask/{id}")
     public ResponseEntity<TasksResponseDTO> findTaskById(@PathVariable("id") UUID id) {
         TasksResponseDTO tasksResponseDTO = taskService.findTask(id);
@@ -61,38 +111,62 @@ public class TaskController {
     }
 
     @GetMapping("/forToday")
-    public ResponseEntity<Page<TasksResponseDTO>> hasTasksToday(
+    public ResponseEntity<Slice<TasksResponseDTO>> hasTasksToday(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<TasksResponseDTO> exists = taskService.hasTasksToday(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        Slice<TasksResponseDTO> exists = withTotal
+                ? taskService.hasTasksToday(page, size)
+                : taskService.listTasksWithoutTotal(TaskListFilter.DUE, page, size, approximateTotal);
         return ResponseEntity.ok(exists);
     }
 
     @GetMapping("/hasTaskForPending")
-    public ResponseEntity<Page<TasksResponseDTO>> hasTasksPending(
+    public ResponseEntity<Slice<TasksResponseDTO>> hasTasksPending(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<TasksResponseDTO> exists = taskService.existsTasksPending(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        Slice<TasksResponseDTO> exists = withTotal
+                ? taskService.existsTasksPending(page, size)
+                : taskService.listTasksWithoutTotal(TaskListFilter.PENDING, page, size, approximateTotal);
         return ResponseEntity.ok(exists);
     }
 
     @GetMapping("/hasTaskForCompleted")
-    public ResponseEntity<Page<TasksResponseDTO>> hasTasksCompleted(
+    public ResponseEntity<Slice<TasksResponseDTO>> hasTasksCompleted(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<TasksResponseDTO> exists = taskService.existsTasksCompleted(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        Slice<TasksResponseDTO> exists = withTotal
+                ? taskService.existsTasksCompleted(page, size)
+                : taskService.listTasksWithoutTotal(TaskListFilter.COMPLETED, page, size, approximateTotal);
         return ResponseEntity.ok(exists);
     }
 
     @GetMapping("/findAllTasksByUsers")
-    public ResponseEntity<Page<TasksResponseDTO>> getAllTaskByUser(
+    public ResponseEntity<Slice<TasksResponseDTO>> getAllTaskByUser(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
-    ) {
-        Page<TasksResponseDTO> tasksResponseDTOS = taskService.getTasksByUser(page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        Slice<TasksResponseDTO> tasksResponseDTOS = withTotal
+                ? taskService.getTasksByUser(page, size)
+                : taskService.listTasksWithoutTotal(TaskListFilter.ALL, page, size, approximateTotal);
         return ResponseEntity.ok(tasksResponseDTOS);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<TasksWindowDTO> scrollTasks(
+            @RequestParam(defaultValue = "ALL") TaskListFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        TasksWindowDTO window = taskService.scrollTasks(filter, cursor, size);
+        return ResponseEntity.ok(window);
+    }
+
     @DeleteMapping("/clearOldCompleted")
     public ResponseEntity<String> clearOldCompleted() {
         int count = taskService.deleteCompletedTasksBefore();
@@ -5,8 +5,6 @@ import com.example.apitask.dtos.users.UsersRequestDTO;
 import com.example.apitask.dtos.users.UsersResponseDTO;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.models.Users;
-import com.example.apitask.repositories.UsersRepository;
-import com.example.apitask.email.EmailPublisher;
 import com.example.apitask.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -14,13 +12,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -28,13 +22,11 @@ public class UserController {
     private final UserService usersService;
     private final AuthenticationManager authenticationManager;
     private final TokenService tokenService;
-    private final UsersRepository usersRepository;
 
-    public UserController(UserService usersService, AuthenticationManager authenticationManager, TokenService tokenService, UsersRepository usersRepository, EmailPublisher emailPublisher) {
+    public UserController(UserService usersService, AuthenticationManager authenticationManager, TokenService tokenService) {
         this.usersService = usersService;
         this.authenticationManager = authenticationManager;
         this.tokenService = tokenService;
-        this.usersRepository = usersRepository;
     }
 
 
@@ -49,20 +41,12 @@ public class UserController {
     public ResponseEntity login(@RequestBody UsersRequestDTO usersRequestDTO) {
         var emailPassword = new UsernamePasswordAuthenticationToken(usersRequestDTO.email(), usersRequestDTO.password());
         var auth = this.authenticationManager.authenticate(emailPassword);
-        var token = this.tokenService.generateToken((Users) auth.getPrincipal());
-        String username = usersRequestDTO.email().split("@")[0];
+        // The authentication manager already loaded the user; its principal carries everything the response needs.
+        Users user = (Users) auth.getPrincipal();
+        var token = this.tokenService.generateToken(user);
+        String username = user.getEmail().split("@")[0];
 
-        Optional<UserDetails> userDetailsOpt = usersRepository.findByEmail(usersRequestDTO.email());
-
-        Users userFromDb = userDetailsOpt
-                .filter(u -> u instanceof Users)
-                .map(u -> (Users) u)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        LocalDate streakDate = userFromDb.getStreakData();
-        System.out.println("StreakDate from DB: " + streakDate);
-
-        return ResponseEntity.status(HttpStatus.OK).body(new UsersLoginDTO(token, username, streakDate));
+        return ResponseEntity.status(HttpStatus.OK).body(new UsersLoginDTO(token, username, user.getStreakData()));
     }
 
     @GetMapping("/users")
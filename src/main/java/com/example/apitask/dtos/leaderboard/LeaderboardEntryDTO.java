@@ -0,0 +1,6 @@
+package com.example.apitask.dtos.leaderboard;
+
+import java.util.UUID;
+
+public record LeaderboardEntryDTO(long rank, UUID userId, String username, int pointers) {
+}
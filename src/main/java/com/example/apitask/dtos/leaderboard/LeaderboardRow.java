@@ -0,0 +1,6 @@
+package com.example.apitask.dtos.leaderboard;
+
+import java.util.UUID;
+
+public record LeaderboardRow(UUID userId, String email, Integer pointers) {
+}
@@ -0,0 +1,6 @@
+package com.example.apitask.dtos.tasks;
+
+import java.util.UUID;
+
+public record TaskBulkItemResultDTO(int index, UUID id, String error) {
+}
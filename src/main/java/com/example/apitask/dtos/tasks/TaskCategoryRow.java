@@ -0,0 +1,6 @@
+package com.example.apitask.dtos.tasks;
+
+import java.util.UUID;
+
+public record TaskCategoryRow(UUID taskId, UUID categoryId, String name) {
+}
@@ -0,0 +1,43 @@
+package com.example.apitask.dtos.tasks;
+
+import com.example.apitask.exceptions.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last task of a window in (dateExpiration desc, id desc) order, carried to the
+ * client as an opaque url-safe token: the epoch day followed by the id's two longs.
+ */
+public record TaskCursor(LocalDate dateExpiration, UUID id) {
+    private static final int SIZE = Long.BYTES * 3;
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE)
+                .putLong(dateExpiration.toEpochDay())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static TaskCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("invalid cursor");
+        }
+        if (bytes.length != SIZE) {
+            throw new InvalidCursorException("invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            return new TaskCursor(LocalDate.ofEpochDay(buffer.getLong()), new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (DateTimeException e) {
+            throw new InvalidCursorException("invalid cursor");
+        }
+    }
+}
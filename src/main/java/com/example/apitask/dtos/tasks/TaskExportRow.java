@@ -0,0 +1,16 @@
+package com.example.apitask.dtos.tasks;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record TaskExportRow(
+        UUID id,
+        UUID userId,
+        String name,
+        String description,
+        boolean completed,
+        LocalDate dateCreation,
+        LocalDate dateConclusion,
+        LocalDate dateExpiration
+) {
+}
@@ -0,0 +1,4 @@
+package com.example.apitask.dtos.tasks;
+
+public record TaskImportRejectDTO(long row, String error) {
+}
@@ -0,0 +1,15 @@
+package com.example.apitask.dtos.tasks;
+
+import java.util.List;
+
+public record TaskImportReportDTO(
+        boolean completed,
+        long rowsRead,
+        long imported,
+        long rejected,
+        long checkpoint,
+        double rowsPerSecond,
+        List<TaskImportRejectDTO> rejects,
+        String failure
+) {
+}
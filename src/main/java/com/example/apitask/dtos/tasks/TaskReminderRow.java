@@ -0,0 +1,7 @@
+package com.example.apitask.dtos.tasks;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record TaskReminderRow(UUID taskId, UUID userId, String email, String taskName, LocalDate dueDate) {
+}
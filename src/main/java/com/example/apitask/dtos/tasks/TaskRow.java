@@ -0,0 +1,15 @@
+package com.example.apitask.dtos.tasks;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record TaskRow(
+        UUID id,
+        String name,
+        String description,
+        boolean completed,
+        LocalDate dateCreation,
+        LocalDate dateConclusion,
+        LocalDate dateExpiration
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.apitask.dtos.tasks;
+
+import java.util.List;
+
+public record TasksBulkResponseDTO(
+        int created,
+        int rejected,
+        List<TaskBulkItemResultDTO> results
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.apitask.dtos.tasks;
+
+import java.util.List;
+
+public record TasksWindowDTO(
+        List<TasksResponseDTO> content,
+        String next,
+        boolean hasNext
+) {
+}
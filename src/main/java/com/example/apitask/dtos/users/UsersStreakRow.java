@@ -0,0 +1,18 @@
+package com.example.apitask.dtos.users;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public record UsersStreakRow(Integer pointers, LocalDate streakData) {
+
+    /**
+     * The streak survives as long as a task was completed today or yesterday; after that the stored
+     * points are stale and count as zero until the next completion starts a new streak.
+     */
+    public int pointersOn(LocalDate today) {
+        if (streakData == null || ChronoUnit.DAYS.between(streakData, today) >= 2) {
+            return 0;
+        }
+        return pointers;
+    }
+}
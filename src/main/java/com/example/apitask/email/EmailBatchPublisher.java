@@ -0,0 +1,211 @@
+package com.example.apitask.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects outgoing email messages and publishes them in batches on a single channel. With publisher
+ * confirms enabled every message of a batch is sent before any confirm is awaited; nacked or
+ * unconfirmed messages are put back on the queue until they run out of attempts. Each message comes
+ * with a future that completes once the broker confirmed it and fails when it is dropped, so callers
+ * only treat a message as sent after its confirm.
+ */
+@Component
+public class EmailBatchPublisher {
+    private static final Logger log = LoggerFactory.getLogger(EmailBatchPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long windowMillis;
+    private final long confirmTimeoutMillis;
+    private final int maxAttempts;
+    private final ScheduledExecutorService flusher;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final DistributionSummary batchSizes;
+    private final Timer confirmLatency;
+    private final Counter retries;
+    private final Counter failures;
+
+    public EmailBatchPublisher(RabbitTemplate rabbitTemplate,
+                               @Value("${email.batch.size:100}") int batchSize,
+                               @Value("${email.batch.window-ms:500}") long windowMillis,
+                               @Value("${email.batch.capacity:10000}") int capacity,
+                               @Value("${email.batch.confirm-timeout-ms:5000}") long confirmTimeoutMillis,
+                               @Value("${email.batch.max-attempts:3}") int maxAttempts,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.windowMillis = windowMillis;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(virtualThreads
+                ? Thread.ofVirtual().name("email-batch-publisher").factory()
+                : Thread.ofPlatform().name("email-batch-publisher").daemon().factory());
+        Gauge.builder("email.batch.queue.depth", queue, BlockingQueue::size)
+                .description("Email messages waiting to be published")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("email.batch.size")
+                .description("Email messages published per batch")
+                .register(meterRegistry);
+        this.confirmLatency = Timer.builder("email.batch.confirm.latency")
+                .description("Time from publishing a batch until all its confirms arrived")
+                .register(meterRegistry);
+        this.retries = Counter.builder("email.batch.retries").register(meterRegistry);
+        this.failures = Counter.builder("email.batch.failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushAll, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flushAll();
+        List<Pending> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        unsent.forEach(pending -> pending.confirmed().completeExceptionally(new AmqpException("Email publisher stopped before the message was sent")));
+    }
+
+    /**
+     * Queues the message without blocking; when the queue is full the returned future has already
+     * failed, so the caller can leave the message for a later attempt instead of holding its thread.
+     */
+    public CompletableFuture<Void> enqueue(String routingKey, Object message) {
+        Pending pending = new Pending(routingKey, message, 0, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            failures.increment();
+            return CompletableFuture.failedFuture(new AmqpException("Email queue is full, " + queue.size() + " messages waiting"));
+        }
+        if (queue.size() >= batchSize) {
+            flusher.execute(this::flushAll);
+        }
+        return pending.confirmed();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            while (!queue.isEmpty()) {
+                if (flush() == 0) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes up to one batch and waits for its confirms. Returns how many messages were confirmed.
+     * Flushes are serialized with a lock instead of a monitor, since a virtual thread blocked on the
+     * broker inside a synchronized method would pin its carrier.
+     */
+    int flush() {
+        flushLock.lock();
+        try {
+            return publishBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int publishBatch() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batchSizes.record(batch.size());
+
+        long start = System.nanoTime();
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (Pending pending : batch) {
+                    CorrelationData correlation = new CorrelationData();
+                    operations.convertAndSend("", pending.routingKey(), pending.message(), correlation);
+                    confirms.add(correlation);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            log.warn("Publishing a batch of {} email messages failed", batch.size(), e);
+            batch.forEach(this::retry);
+            return 0;
+        }
+
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            batch.forEach(pending -> pending.confirmed().complete(null));
+            return batch.size();
+        }
+
+        int confirmed = 0;
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        for (int i = 0; i < batch.size(); i++) {
+            if (awaitAck(confirms.get(i), deadline)) {
+                batch.get(i).confirmed().complete(null);
+                confirmed++;
+            } else {
+                retry(batch.get(i));
+            }
+        }
+        confirmLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return confirmed;
+    }
+
+    // The whole batch shares one deadline, so a stalled broker costs the timeout once, not once per message.
+    private boolean awaitAck(CorrelationData correlation, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void retry(Pending pending) {
+        if (pending.attempts() + 1 < maxAttempts && queue.offer(pending.nextAttempt())) {
+            retries.increment();
+            return;
+        }
+        failures.increment();
+        log.error("Dropping email message for {} after {} attempts", pending.routingKey(), pending.attempts() + 1);
+        pending.confirmed().completeExceptionally(new AmqpException("Email message not confirmed after " + (pending.attempts() + 1) + " attempts"));
+    }
+
+    private record Pending(String routingKey, Object message, int attempts, CompletableFuture<Void> confirmed) {
+        Pending nextAttempt() {
+            return new Pending(routingKey, message, attempts + 1, confirmed);
+        }
+    }
+}
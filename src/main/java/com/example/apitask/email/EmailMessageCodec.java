@@ -0,0 +1,251 @@
+package com.example.apitask.email;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes and reads the email messages with hand-written Jackson streaming code instead of databind,
+ * so the hot path does no reflection or bean introspection. The JSON and the {@code __TypeId__}
+ * header are the same Jackson2JsonMessageConverter produced, so consumers need no change; every
+ * message also carries {@value #SCHEMA_HEADER} so the layout can evolve. Output buffers are taken
+ * from a small shared pool rather than a thread-local, which would not be reused with virtual
+ * threads. Other payload types fall back to Jackson2JsonMessageConverter.
+ */
+@Component
+public class EmailMessageCodec implements MessageConverter {
+    public static final String SCHEMA_HEADER = "x-email-schema";
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final String TYPE_HEADER = AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME;
+    private static final int POOL_SIZE = 64;
+    private static final int MAX_POOLED_BYTES = 64 * 1024;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final MessageConverter fallback = new Jackson2JsonMessageConverter();
+    private final Queue<ByteArrayBuilder> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!supports(object)) {
+            return fallback.toMessage(object, messageProperties);
+        }
+        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+        messageProperties.setHeader(TYPE_HEADER, object.getClass().getName());
+        messageProperties.setHeader(SCHEMA_HEADER, SCHEMA_VERSION);
+        byte[] body = encode(object);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        Object type = message.getMessageProperties().getHeader(TYPE_HEADER);
+        if (!(type instanceof String typeName) || !isEmailType(typeName)) {
+            return fallback.fromMessage(message);
+        }
+        Object schema = message.getMessageProperties().getHeader(SCHEMA_HEADER);
+        if (schema != null && !Integer.valueOf(SCHEMA_VERSION).equals(schema)) {
+            throw new MessageConversionException("Unsupported email message schema " + schema);
+        }
+        return decode(typeName, message.getBody());
+    }
+
+    public static boolean supports(Object object) {
+        return object instanceof EmailMessage || object instanceof EmailMessageForTask || object instanceof EmailMessageForTaskDigest;
+    }
+
+    /**
+     * Encodes one of the email message types to its JSON body.
+     */
+    public byte[] encode(Object object) {
+        ByteArrayBuilder buffer = acquire();
+        try {
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+                switch (object) {
+                    case EmailMessage mail -> write(generator, mail);
+                    case EmailMessageForTask mail -> write(generator, mail);
+                    case EmailMessageForTaskDigest mail -> write(generator, mail);
+                    default -> throw new MessageConversionException("Not an email message: " + object.getClass().getName());
+                }
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not encode " + object.getClass().getSimpleName(), e);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Decodes a body written by {@link #encode} or by Jackson2JsonMessageConverter.
+     */
+    public Object decode(String typeName, byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            if (typeName.equals(EmailMessage.class.getName())) {
+                return readMessage(parser);
+            }
+            if (typeName.equals(EmailMessageForTask.class.getName())) {
+                return readTaskMessage(parser);
+            }
+            return readDigest(parser);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not decode " + typeName, e);
+        }
+    }
+
+    private static boolean isEmailType(String typeName) {
+        return typeName.equals(EmailMessage.class.getName())
+                || typeName.equals(EmailMessageForTask.class.getName())
+                || typeName.equals(EmailMessageForTaskDigest.class.getName());
+    }
+
+    private static void write(JsonGenerator generator, EmailMessage mail) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("to", mail.getTo());
+        generator.writeStringField("subject", mail.getSubject());
+        generator.writeStringField("body", mail.getBody());
+        generator.writeEndObject();
+    }
+
+    private static void write(JsonGenerator generator, EmailMessageForTask mail) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("to", mail.getTo());
+        generator.writeStringField("userName", mail.getUserName());
+        generator.writeStringField("taskName", mail.getTaskName());
+        generator.writeStringField("taskDueDate", mail.getTaskDueDate());
+        generator.writeEndObject();
+    }
+
+    private static void write(JsonGenerator generator, EmailMessageForTaskDigest mail) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("to", mail.getTo());
+        generator.writeStringField("userName", mail.getUserName());
+        if (mail.getTasks() == null) {
+            generator.writeNullField("tasks");
+        } else {
+            generator.writeArrayFieldStart("tasks");
+            for (EmailMessageForTaskDigest.TaskItem task : mail.getTasks()) {
+                generator.writeStartObject();
+                generator.writeStringField("taskName", task.getTaskName());
+                generator.writeStringField("taskDueDate", task.getTaskDueDate());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static EmailMessage readMessage(JsonParser parser) throws IOException {
+        EmailMessage mail = new EmailMessage(null, null, null);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "to" -> mail.setTo(parser.getValueAsString());
+                case "subject" -> mail.setSubject(parser.getValueAsString());
+                case "body" -> mail.setBody(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return mail;
+    }
+
+    private static EmailMessageForTask readTaskMessage(JsonParser parser) throws IOException {
+        EmailMessageForTask mail = new EmailMessageForTask();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "to" -> mail.setTo(parser.getValueAsString());
+                case "userName" -> mail.setUserName(parser.getValueAsString());
+                case "taskName" -> mail.setTaskName(parser.getValueAsString());
+                case "taskDueDate" -> mail.setTaskDueDate(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return mail;
+    }
+
+    private static EmailMessageForTaskDigest readDigest(JsonParser parser) throws IOException {
+        EmailMessageForTaskDigest mail = new EmailMessageForTaskDigest();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "to" -> mail.setTo(parser.getValueAsString());
+                case "userName" -> mail.setUserName(parser.getValueAsString());
+                case "tasks" -> mail.setTasks(value == JsonToken.VALUE_NULL ? null : readTaskItems(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return mail;
+    }
+
+    private static List<EmailMessageForTaskDigest.TaskItem> readTaskItems(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        List<EmailMessageForTaskDigest.TaskItem> tasks = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            EmailMessageForTaskDigest.TaskItem task = new EmailMessageForTaskDigest.TaskItem();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "taskName" -> task.setTaskName(parser.getValueAsString());
+                    case "taskDueDate" -> task.setTaskDueDate(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private ByteArrayBuilder acquire() {
+        ByteArrayBuilder buffer = buffers.poll();
+        if (buffer == null) {
+            return new ByteArrayBuilder(512);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    // A buffer that grew past MAX_POOLED_BYTES for an unusually large digest is left to the GC.
+    private void release(ByteArrayBuilder buffer) {
+        buffer.reset();
+        if (buffer.getCurrentSegment().length > MAX_POOLED_BYTES) {
+            return;
+        }
+        if (pooled.incrementAndGet() > POOL_SIZE) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffers.offer(buffer);
+    }
+}
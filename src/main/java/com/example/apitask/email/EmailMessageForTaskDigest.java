@@ -0,0 +1,71 @@
+package com.example.apitask.email;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmailMessageForTaskDigest implements Serializable {
+    private String to;
+    private String userName;
+    private List<TaskItem> tasks = new ArrayList<>();
+
+    public EmailMessageForTaskDigest() {}
+
+    public EmailMessageForTaskDigest(String to, String userName, List<TaskItem> tasks) {
+        this.to = to;
+        this.userName = userName;
+        this.tasks = tasks;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public List<TaskItem> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskItem> tasks) {
+        this.tasks = tasks;
+    }
+
+    public static class TaskItem implements Serializable {
+        private String taskName;
+        private String taskDueDate;
+
+        public TaskItem() {}
+
+        public TaskItem(String taskName, String taskDueDate) {
+            this.taskName = taskName;
+            this.taskDueDate = taskDueDate;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public void setTaskName(String taskName) {
+            this.taskName = taskName;
+        }
+
+        public String getTaskDueDate() {
+            return taskDueDate;
+        }
+
+        public void setTaskDueDate(String taskDueDate) {
+            this.taskDueDate = taskDueDate;
+        }
+    }
+}
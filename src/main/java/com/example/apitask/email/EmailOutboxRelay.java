@@ -0,0 +1,187 @@
+package com.example.apitask.email;
+
+import com.example.apitask.models.EmailOutbox;
+import com.example.apitask.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the email outbox to the broker. Each batch is claimed with {@code SKIP LOCKED} and leased in
+ * a short transaction, published on one channel and awaited with no transaction open, and the
+ * results are recorded in a second transaction: confirmed messages are deleted, the others get one
+ * more attempt counted and their lease released. A relay that dies in between leaves the lease to
+ * expire, after which another relay sends those messages again, so delivery is at least once and
+ * every message carries its outbox id as message id. Messages that used up their attempts are
+ * dead-lettered: kept in the table for inspection, logged and counted, but no longer claimed.
+ */
+@Component
+public class EmailOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxRelay.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    private final Counter relayed;
+    private final Counter failures;
+    private final Counter deadLettered;
+
+    public EmailOutboxRelay(EmailOutboxRepository emailOutboxRepository, RabbitTemplate rabbitTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${email.outbox.batch-size:100}") int batchSize,
+                            @Value("${email.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMillis,
+                            @Value("${email.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${email.outbox.lease-ms:60000}") long leaseMillis,
+                            MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.relayed = Counter.builder("email.outbox.relayed")
+                .description("Outbox email messages published and confirmed by the broker")
+                .register(meterRegistry);
+        this.failures = Counter.builder("email.outbox.failures")
+                .description("Outbox email messages that could not be published and stay queued")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("email.outbox.dead.lettered")
+                .description("Outbox email messages that ran out of attempts and are no longer relayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relays batches until the outbox is drained or a batch could not be fully published. Returns how
+     * many messages were relayed.
+     */
+    public int relayPending() {
+        int total = 0;
+        while (true) {
+            List<EmailOutbox> claimed = transactionTemplate.execute(status -> claim());
+            if (claimed == null || claimed.isEmpty()) {
+                return total;
+            }
+
+            List<UUID> published = publish(claimed);
+            Set<UUID> confirmed = new HashSet<>(published);
+            List<UUID> failed = claimed.stream().map(EmailOutbox::getId).filter(id -> !confirmed.contains(id)).toList();
+            Integer dead = transactionTemplate.execute(status -> record(published, failed));
+            if (dead != null && dead > 0) {
+                deadLettered.increment(dead);
+                log.error("{} outbox email messages failed {} times and were dead-lettered", dead, maxAttempts);
+            }
+
+            total += published.size();
+            if (claimed.size() < batchSize || published.size() < claimed.size()) {
+                return total;
+            }
+        }
+    }
+
+    private List<EmailOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> claimed = emailOutboxRepository.claimBatch(maxAttempts, now, PageRequest.ofSize(batchSize));
+        if (!claimed.isEmpty()) {
+            emailOutboxRepository.lease(claimed.stream().map(EmailOutbox::getId).toList(), now.plus(lease));
+        }
+        return claimed;
+    }
+
+    // Runs with no transaction open, so no row locks or connection are held while the broker confirms.
+    private List<UUID> publish(List<EmailOutbox> claimed) {
+        List<CorrelationData> confirms = new ArrayList<>(claimed.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (EmailOutbox row : claimed) {
+                    CorrelationData correlation = new CorrelationData(row.getId().toString());
+                    operations.send("", row.getRoutingKey(), toMessage(row), correlation);
+                    confirms.add(correlation);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            log.warn("Relaying a batch of {} outbox email messages failed", claimed.size(), e);
+            return List.of();
+        }
+
+        List<UUID> published = new ArrayList<>(claimed.size());
+        boolean awaitConfirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        for (int i = 0; i < claimed.size(); i++) {
+            if (!awaitConfirms || awaitAck(confirms.get(i), deadline)) {
+                published.add(claimed.get(i).getId());
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Deletes the confirmed messages and counts an attempt for the rest. Returns how many of those
+     * were dead-lettered because that was their last attempt.
+     */
+    private int record(List<UUID> published, List<UUID> failed) {
+        if (!published.isEmpty()) {
+            emailOutboxRepository.deleteByIds(published);
+            relayed.increment(published.size());
+        }
+        if (failed.isEmpty()) {
+            return 0;
+        }
+        emailOutboxRepository.incrementAttempts(failed);
+        failures.increment(failed.size());
+        return emailOutboxRepository.deadLetter(failed, maxAttempts, LocalDateTime.now());
+    }
+
+    // The whole batch shares one deadline, so a slow broker costs the timeout once, not once per message.
+    private boolean awaitAck(CorrelationData correlation, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Same properties EmailMessageCodec sets, so consumers see no difference from a direct send.
+    private Message toMessage(EmailOutbox row) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(row.getId().toString());
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, row.getPayloadType());
+        properties.setHeader(EmailMessageCodec.SCHEMA_HEADER, EmailMessageCodec.SCHEMA_VERSION);
+        return new Message(row.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
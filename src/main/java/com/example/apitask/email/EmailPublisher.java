@@ -1,40 +1,75 @@
 package com.example.apitask.email;
 
-import com.example.apitask.models.Tasks;
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.models.EmailOutbox;
 import com.example.apitask.models.Users;
+import com.example.apitask.repositories.EmailOutboxRepository;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class EmailPublisher {
     private final RabbitTemplate rabbitTemplate;
     private final String queueNameForWelcome;
     private final String queueNameForTask;
+    private final String queueNameForTaskDigest;
+    private final EmailBatchPublisher batchPublisher;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailMessageCodec emailMessageCodec;
 
-    public EmailPublisher(RabbitTemplate rabbitTemplate, @Value("${rabbit.name}") String queueName, @Value("${rabbit.task.name}") String queueNameForTask) {
+    public EmailPublisher(RabbitTemplate rabbitTemplate, EmailBatchPublisher batchPublisher, @Value("${rabbit.name}") String queueName, @Value("${rabbit.task.name}") String queueNameForTask,
+                          @Value("${rabbit.task.digest.name}") String queueNameForTaskDigest,
+                          EmailOutboxRepository emailOutboxRepository, EmailMessageCodec emailMessageCodec) {
         this.rabbitTemplate = rabbitTemplate;
+        this.batchPublisher = batchPublisher;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailMessageCodec = emailMessageCodec;
         this.queueNameForWelcome = queueName;
         this.queueNameForTask = queueNameForTask;
-        this.rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+        this.queueNameForTaskDigest = queueNameForTaskDigest;
+        this.rabbitTemplate.setMessageConverter(emailMessageCodec);
     }
 
+    /**
+     * Writes the welcome email to the outbox in the caller's transaction, so it is sent if and only if
+     * the user row commits; {@link EmailOutboxRelay} publishes it afterwards.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendWelcomeEmail(Users users) {
         EmailMessage mail = new EmailMessage(
                 users.getEmail(), "Welcome to apitask", "Hello, " + users.getUsername() + ", Welcome to apitask."
         );
-        rabbitTemplate.convertAndSend(queueNameForWelcome, mail);
+        emailOutboxRepository.save(new EmailOutbox(queueNameForWelcome, EmailMessage.class.getName(),
+                new String(emailMessageCodec.encode(mail), StandardCharsets.UTF_8), LocalDateTime.now()));
     }
 
-    public void sendTaskEmail(Users users, Tasks tasks) {
+    /**
+     * Returns a future that completes once the broker confirmed the reminder.
+     */
+    public CompletableFuture<Void> sendTaskEmail(TaskReminderRow reminder) {
         EmailMessageForTask emailMessage = new EmailMessageForTask();
-        emailMessage.setTo(users.getEmail());
-        emailMessage.setUserName(users.getUsername());
-        emailMessage.setTaskName(tasks.getName());
-        emailMessage.setTaskDueDate(tasks.getDateExpiration().toString());
+        emailMessage.setTo(reminder.email());
+        emailMessage.setUserName(reminder.email());
+        emailMessage.setTaskName(reminder.taskName());
+        emailMessage.setTaskDueDate(reminder.dueDate().toString());
+
+        return batchPublisher.enqueue(queueNameForTask, emailMessage);
+    }
+
+    public CompletableFuture<Void> sendTaskDigest(List<TaskReminderRow> reminders) {
+        TaskReminderRow first = reminders.getFirst();
+        List<EmailMessageForTaskDigest.TaskItem> tasks = reminders.stream()
+                .map(reminder -> new EmailMessageForTaskDigest.TaskItem(reminder.taskName(), reminder.dueDate().toString()))
+                .toList();
 
-        rabbitTemplate.convertAndSend(queueNameForTask, emailMessage);
+        return batchPublisher.enqueue(queueNameForTaskDigest, new EmailMessageForTaskDigest(first.email(), first.email(), tasks));
     }
 }
@@ -0,0 +1,6 @@
+package com.example.apitask.enums;
+
+public enum ReminderMode {
+    PER_TASK,
+    DIGEST
+}
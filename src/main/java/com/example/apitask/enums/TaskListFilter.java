@@ -0,0 +1,8 @@
+package com.example.apitask.enums;
+
+public enum TaskListFilter {
+    DUE,
+    PENDING,
+    COMPLETED,
+    ALL
+}
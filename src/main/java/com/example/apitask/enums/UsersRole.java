@@ -3,7 +3,8 @@ package com.example.apitask.enums;
 import jakarta.persistence.Enumerated;
 
 public enum UsersRole {
-    USER("user");
+    USER("user"),
+    ADMIN("admin");
 
     private String role;
 
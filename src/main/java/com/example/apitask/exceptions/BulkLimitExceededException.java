@@ -0,0 +1,11 @@
+package com.example.apitask.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BulkLimitExceededException extends RuntimeException {
+    public BulkLimitExceededException(String message) {
+        super(message);
+    }
+}
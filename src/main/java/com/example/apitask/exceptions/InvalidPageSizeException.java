@@ -0,0 +1,11 @@
+package com.example.apitask.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageSizeException extends RuntimeException {
+    public InvalidPageSizeException(String message) {
+        super(message);
+    }
+}
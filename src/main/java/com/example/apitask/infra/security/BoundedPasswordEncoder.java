@@ -0,0 +1,122 @@
+package com.example.apitask.infra.security;
+
+import com.example.apitask.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a fixed pool of threads with a bounded queue in front of it. Signup and login bursts
+ * therefore use at most that many cores however many requests arrive, and a request that finds the
+ * queue full fails right away with {@link PasswordHashingBusyException} (429) instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    private static final String PROBE = "calibration-probe-password";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashes turned away because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Picks the BCrypt cost whose hash takes closest to {@code targetMillis} on this machine, never
+     * going below {@code minStrength}. Each step of cost doubles the time, so one timed hash at the
+     * minimum is enough to extrapolate.
+     */
+    public static int calibrate(long targetMillis, int minStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode(PROBE);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(PROBE);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double measuredMillis = Math.max(best / 1_000_000.0, 0.01);
+        int strength = minStrength + (int) Math.round(Math.log(targetMillis / measuredMillis) / Math.log(2));
+        strength = Math.max(minStrength, Math.min(31, strength));
+        log.info("BCrypt cost {} takes {} ms here; using cost {} for a {} ms target", minStrength, Math.round(measuredMillis), strength, targetMillis);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T run(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many password checks in progress, try again shortly.");
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for a password check.");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
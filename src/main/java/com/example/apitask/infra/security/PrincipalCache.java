@@ -0,0 +1,120 @@
+package com.example.apitask.infra.security;
+
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.models.Users;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Authenticated principals resolved by {@link SecurityFilter}, keyed by token subject and token id.
+ * Each entry lives until the token that produced it expires, so a valid token never needs a
+ * second database lookup for its user. Only the user's identity (id, email, role) is cached, never
+ * the entity: every lookup returns a new principal carrying just those fields, so values that change
+ * while a token is alive, such as points or streak, are always read from the database.
+ *
+ * <p>Each entry records its user's generation when it was cached. Invalidating a user bumps that
+ * generation, and entries of an older generation are treated as misses, so a user's entries are
+ * dropped without scanning the cache. Generations are kept for as long as a token lives, so an entry
+ * never outlives the bump that invalidated it.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<Key, Entry> cache;
+    private final Cache<UUID, Long> generations;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${jwt.lifetime-seconds:7200}") long tokenLifetimeSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(tokenLifetimeSeconds))
+                .build();
+    }
+
+    public Optional<Users> get(String subject, String tokenId) {
+        Key key = new Key(subject, tokenId);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.generation() != generation(entry.id())) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.toPrincipal());
+    }
+
+    /**
+     * Caches the identity of {@code user} and returns the principal built from it, so requests get the
+     * same shape of principal whether or not the cache was hit. {@code generation} must be read with
+     * {@link #generation} before the user is loaded: an invalidation that lands during the load then
+     * leaves the entry stale instead of being overwritten by it.
+     */
+    public Users put(String subject, String tokenId, Users user, Instant expiresAt, long generation) {
+        Entry entry = new Entry(user.getId(), user.getEmail(), user.getRole(), generation, expiresAt);
+        if (expiresAt != null && expiresAt.isAfter(Instant.now())) {
+            cache.put(new Key(subject, tokenId), entry);
+        }
+        return entry.toPrincipal();
+    }
+
+    public void invalidateUser(UUID userId) {
+        generations.asMap().merge(userId, 1L, Long::sum);
+    }
+
+    public long generation(UUID userId) {
+        Long generation = generations.getIfPresent(userId);
+        return generation == null ? 0L : generation;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private record Key(String subject, String tokenId) {
+    }
+
+    private record Entry(UUID id, String email, UsersRole role, long generation, Instant expiresAt) {
+        Users toPrincipal() {
+            Users principal = new Users();
+            principal.setId(id);
+            principal.setEmail(email);
+            principal.setRole(role);
+            return principal;
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<Key, Entry> {
+        @Override
+        public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.apitask.infra.security;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "principalcache")
+public class PrincipalCacheEndpoint {
+    private final PrincipalCache principalCache;
+
+    public PrincipalCacheEndpoint(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = principalCache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", principalCache.size());
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("evictions", stats.evictionCount());
+        body.put("hitRate", stats.hitRate());
+        return body;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.apitask.infra.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,7 +15,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -37,8 +38,19 @@ public class SecurityConfigurations {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * A strength of 0 calibrates the BCrypt cost at startup to take about
+     * {@code security.bcrypt.target-ms} on this hardware; hashes made with another cost still verify.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:0}") int strength,
+                                                 @Value("${security.bcrypt.target-ms:250}") long targetMillis,
+                                                 @Value("${security.bcrypt.min-strength:10}") int minStrength,
+                                                 @Value("${security.bcrypt.threads:0}") int threads,
+                                                 @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                                 MeterRegistry meterRegistry) {
+        int cost = strength > 0 ? strength : BoundedPasswordEncoder.calibrate(targetMillis, minStrength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), poolSize, queueCapacity, meterRegistry);
     }
 }
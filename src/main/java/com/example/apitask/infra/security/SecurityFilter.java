@@ -1,6 +1,5 @@
 package com.example.apitask.infra.security;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.apitask.models.Users;
 import com.example.apitask.repositories.UsersRepository;
 import jakarta.servlet.FilterChain;
@@ -11,7 +10,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -19,12 +17,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
@@ -32,6 +27,8 @@ public class SecurityFilter extends OncePerRequestFilter {
     TokenService tokenService;
     @Autowired
     UsersRepository userRepository;
+    @Autowired
+    PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -46,18 +43,12 @@ public class SecurityFilter extends OncePerRequestFilter {
         try {
             var token = this.recoverToken(request);
             if (token != null) {
-                DecodedJWT jwt = tokenService.decodeToken(token);
-                String username = jwt.getSubject();
-                List<String> roles = jwt.getClaim("authorities").asList(String.class);
-
-                List<GrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+                VerifiedToken verified = tokenService.verify(token);
 
-                Optional<UserDetails> userOpt = userRepository.findByEmail(username);
+                Optional<Users> userOpt = resolvePrincipal(verified);
                 if (userOpt.isPresent()) {
-                    UserDetails user = userOpt.get();
-                    Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
+                    Users user = userOpt.get();
+                    Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, verified.authorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
@@ -68,6 +59,24 @@ public class SecurityFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Optional<Users> resolvePrincipal(VerifiedToken token) {
+        String username = token.subject();
+        String tokenId = token.tokenId();
+        Optional<Users> cached = principalCache.get(username, tokenId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        // Tokens without an id claim cannot be matched to a generation before the load, so they are not cached.
+        long generation = token.userId() != null ? principalCache.generation(token.userId()) : -1;
+        return userRepository.findByEmail(username)
+                .filter(Users.class::isInstance)
+                .map(Users.class::cast)
+                .map(user -> user.getId().equals(token.userId())
+                        ? principalCache.put(username, tokenId, user, token.expiresAt(), generation)
+                        : user);
+    }
+
     private String recoverToken(HttpServletRequest request){
         var authHeader = request.getHeader("Authorization");
         if(authHeader == null) return null;
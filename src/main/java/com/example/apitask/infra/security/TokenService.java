@@ -1,40 +1,77 @@
 package com.example.apitask.infra.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.apitask.models.Users;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-public class TokenService {
-    @Value("${jwt.secret}")
-    String secret;
+public class TokenService implements MeterBinder {
+    private static final String ISSUER = "apitask";
+
+    private final AtomicReference<KeyRing> keyRing;
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+    private final Duration tokenLifetime;
+
+    public TokenService(@Value("${jwt.secret}") String secret,
+                        @Value("${jwt.kid:default}") String kid,
+                        @Value("#{${jwt.previous-keys:{:}}}") Map<String, String> previousKeys,
+                        @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize,
+                        @Value("${jwt.lifetime-seconds:7200}") long lifetimeSeconds) {
+        Map<String, String> secrets = new HashMap<>(previousKeys);
+        secrets.put(kid, secret);
+        this.keyRing = new AtomicReference<>(KeyRing.of(kid, kid, secrets));
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        this.tokenLifetime = Duration.ofSeconds(lifetimeSeconds);
+    }
 
     public String generateToken(Users users) {
         try {
-
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            List<String> authorities = List.of("ROLE_" + users.getRole().name());
+            KeyRing ring = keyRing.get();
+            List<String> authorities = users.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
 
             return JWT.create()
-                    .withIssuer("apitask")
+                    .withKeyId(ring.activeKid())
+                    .withIssuer(ISSUER)
                     .withSubject(users.getEmail())
                     .withClaim("id", users.getId().toString())
                     .withClaim("role", users.getRole().name())
                     .withClaim("authorities", authorities)
+                    .withJWTId(UUID.randomUUID().toString())
                     .withExpiresAt(genExpirationDate())
-                    .sign(algorithm);
+                    .sign(ring.signer());
         }catch (JWTCreationException e) {
             throw new RuntimeException("Error while generating token", e);
         }
@@ -42,12 +79,7 @@ public class TokenService {
 
     public String validateToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("apitask")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            return decodeToken(token).getSubject();
         } catch (JWTVerificationException e) {
             return null;
         }
@@ -68,14 +100,130 @@ public class TokenService {
     }
 
     private Instant genExpirationDate(){
-        return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
+        return Instant.now().plus(tokenLifetime);
     }
 
     public DecodedJWT decodeToken(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        return JWT.require(algorithm)
-                .withIssuer("apitask")
-                .build()
-                .verify(token);
+        DecodedJWT jwt = JWT.decode(token);
+        return keyRing.get().verifierFor(jwt.getKeyId()).verify(jwt);
+    }
+
+    /**
+     * Verifies {@code token} once and remembers the result until the token expires, so a client
+     * replaying the same bearer token skips signature verification and claim parsing.
+     */
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        DecodedJWT jwt = decodeToken(token);
+        VerifiedToken verified = toVerifiedToken(jwt);
+        if (verified.expiresAt() != null && verified.expiresAt().isAfter(Instant.now())) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified");
+        Gauge.builder("jwt.verified.hit.ratio", verifiedTokens, cache -> cache.stats().hitRate())
+                .description("Share of bearer tokens served from the verified-token cache")
+                .register(registry);
+    }
+
+    private VerifiedToken toVerifiedToken(DecodedJWT jwt) {
+        List<String> roles = jwt.getClaim("authorities").asList(String.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        String id = jwt.getClaim("id").asString();
+        return new VerifiedToken(
+                jwt.getSubject(),
+                id == null ? null : UUID.fromString(id),
+                jwt.getId() != null ? jwt.getId() : jwt.getSignature(),
+                authorities,
+                jwt.getExpiresAtAsInstant()
+        );
+    }
+
+    private ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Makes {@code kid} the signing key for new tokens. Keys already in the ring stay valid for
+     * verification, so tokens issued before the rotation keep working until they expire.
+     */
+    public void rotateKey(String kid, String secret) {
+        keyRing.updateAndGet(ring -> ring.withActiveKey(kid, secret));
+    }
+
+    /**
+     * Drops {@code kid} from the ring; tokens signed with it stop verifying immediately.
+     */
+    public void retireKey(String kid) {
+        keyRing.updateAndGet(ring -> ring.without(kid));
+        verifiedTokens.invalidateAll();
+    }
+
+    private record KeyRing(String activeKid, String legacyKid, Algorithm signer, Map<String, String> secrets, Map<String, JWTVerifier> verifiers) {
+
+        static KeyRing of(String activeKid, String legacyKid, Map<String, String> secrets) {
+            Map<String, JWTVerifier> verifiers = new HashMap<>();
+            secrets.forEach((kid, secret) -> verifiers.put(kid, JWT.require(Algorithm.HMAC256(secret))
+                    .withIssuer(ISSUER)
+                    .build()));
+            return new KeyRing(activeKid, legacyKid, Algorithm.HMAC256(secrets.get(activeKid)), Map.copyOf(secrets), Map.copyOf(verifiers));
+        }
+
+        KeyRing withActiveKey(String kid, String secret) {
+            Map<String, String> next = new HashMap<>(secrets);
+            next.put(kid, secret);
+            return of(kid, legacyKid, next);
+        }
+
+        KeyRing without(String kid) {
+            if (kid.equals(activeKid)) {
+                throw new IllegalArgumentException("Cannot retire the active signing key");
+            }
+            Map<String, String> next = new HashMap<>(secrets);
+            next.remove(kid);
+            return of(activeKid, legacyKid, next);
+        }
+
+        // Tokens issued before key ids were introduced carry no kid and were signed with jwt.secret.
+        JWTVerifier verifierFor(String kid) {
+            JWTVerifier verifier = verifiers.get(kid == null ? legacyKid : kid);
+            if (verifier == null) {
+                throw new JWTVerificationException("Unknown key id: " + kid);
+            }
+            return verifier;
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<ByteBuffer, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,10 @@
+package com.example.apitask.infra.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record VerifiedToken(String subject, UUID userId, String tokenId, List<GrantedAuthority> authorities, Instant expiresAt) {
+}
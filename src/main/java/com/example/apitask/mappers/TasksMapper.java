@@ -1,5 +1,7 @@
 package com.example.apitask.mappers;
 
+import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.dtos.tasks.TaskRow;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
 import com.example.apitask.models.Tasks;
@@ -7,6 +9,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
 import java.util.List;
+import java.util.Set;
 
 @Mapper(componentModel = "spring", uses = CategoriesMapper.class)
 public interface TasksMapper {
@@ -14,4 +17,7 @@ public interface TasksMapper {
     @Mapping(target = "categories", source = "categories")
     TasksResponseDTO toDTO(Tasks tasks);
     List<TasksResponseDTO> toListResponse(List<Tasks> tasks);
+    @Mapping(target = "categories", source = "categories")
+    @Mapping(target = "firstTaskToday", ignore = true)
+    TasksResponseDTO toDTO(TaskRow row, Set<CategoriesResponseDTO> categories);
 }
@@ -0,0 +1,55 @@
+package com.example.apitask.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An email message written in the same transaction as the change that triggered it and published
+ * to the broker later by the outbox relay.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // Set while a relay is publishing the message; another relay may claim it once this has passed.
+    @Column(name = "leased_until")
+    private LocalDateTime leasedUntil;
+
+    // Set once the message ran out of attempts; the relay no longer claims it.
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+
+    public EmailOutbox(String routingKey, String payloadType, String payload, LocalDateTime createdAt) {
+        this.routingKey = routingKey;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
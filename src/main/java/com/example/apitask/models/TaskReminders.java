@@ -0,0 +1,44 @@
+package com.example.apitask.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_reminders")
+@IdClass(TaskReminders.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskReminders {
+
+    @Id
+    @Column(name = "tasks_id")
+    private UUID tasksId;
+
+    @Id
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID tasksId;
+        private LocalDate dueDate;
+    }
+}
@@ -1,12 +1,35 @@
 package com.example.apitask.repositories;
 
 import com.example.apitask.models.Categories;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Repository
 public interface CategoriesRepository extends JpaRepository<Categories, UUID> {
     boolean existsByName(String name);
+
+    /**
+     * Returns which of {@code ids} exist and share-locks them until the surrounding transaction ends,
+     * so none of them can be deleted between this check and the inserts that reference them.
+     */
+    default Set<UUID> lockExistingIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return lockAllByIdIn(ids).stream().map(Categories::getId).collect(Collectors.toSet());
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Categories c where c.id in :ids")
+    List<Categories> lockAllByIdIn(@Param("ids") Collection<UUID> ids);
 }
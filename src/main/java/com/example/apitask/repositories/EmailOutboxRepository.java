@@ -0,0 +1,50 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.models.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, UUID> {
+
+    /**
+     * Locks the oldest relayable messages with {@code FOR UPDATE SKIP LOCKED}, so relays running on
+     * several instances each claim a disjoint batch instead of waiting on one another. Messages under
+     * a lease that has not expired yet, or already dead-lettered, are not relayable.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM EmailOutbox o WHERE o.deadLetteredAt IS NULL AND o.attempts < :maxAttempts " +
+            "AND (o.leasedUntil IS NULL OR o.leasedUntil < :now) ORDER BY o.createdAt")
+    List<EmailOutbox> claimBatch(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.leasedUntil = :until WHERE o.id IN :ids")
+    int lease(@Param("ids") Collection<UUID> ids, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.attempts = o.attempts + 1, o.leasedUntil = NULL WHERE o.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.deadLetteredAt = :now " +
+            "WHERE o.id IN :ids AND o.attempts >= :maxAttempts AND o.deadLetteredAt IS NULL")
+    int deadLetter(@Param("ids") Collection<UUID> ids, @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+}
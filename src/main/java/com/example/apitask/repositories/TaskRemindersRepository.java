@@ -0,0 +1,20 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.models.TaskReminders;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface TaskRemindersRepository extends JpaRepository<TaskReminders, TaskReminders.Key> {
+
+    @Modifying
+    @Query("insert into TaskReminders (tasksId, dueDate, sentAt) select t.id, t.dateExpiration, :sentAt from Tasks t where t.id in :taskIds")
+    int recordSent(@Param("taskIds") Collection<UUID> taskIds, @Param("sentAt") LocalDateTime sentAt);
+}
@@ -0,0 +1,55 @@
+package com.example.apitask.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Inserts many tasks and their category links with JDBC batches instead of one persist per task. Ids
+ * are assigned by the caller, so neither table needs a round-trip to learn generated keys.
+ */
+@Repository
+public class TasksBulkRepository {
+    private static final String INSERT_TASK =
+            "insert into tasks (id, name, description, completed, date_creation, date_expiration, users_id) values (?, ?, ?, false, ?, ?, ?)";
+    private static final String INSERT_TASK_CATEGORY =
+            "insert into tasks_category (tasks_id, category_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TasksBulkRepository(JdbcTemplate jdbcTemplate, @Value("${tasks.bulk.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insert(UUID userId, List<NewTask> tasks) {
+        jdbcTemplate.batchUpdate(INSERT_TASK, tasks, batchSize, (statement, task) -> {
+            statement.setObject(1, task.id());
+            statement.setString(2, task.name());
+            statement.setString(3, task.description());
+            statement.setObject(4, task.dateCreation());
+            statement.setObject(5, task.dateExpiration());
+            statement.setObject(6, userId);
+        });
+
+        List<Map.Entry<UUID, UUID>> links = new ArrayList<>();
+        for (NewTask task : tasks) {
+            task.categoryIds().forEach(categoryId -> links.add(Map.entry(task.id(), categoryId)));
+        }
+        jdbcTemplate.batchUpdate(INSERT_TASK_CATEGORY, links, batchSize, (statement, link) -> {
+            statement.setObject(1, link.getKey());
+            statement.setObject(2, link.getValue());
+        });
+    }
+
+    public record NewTask(UUID id, String name, String description, LocalDate dateCreation, LocalDate dateExpiration, Set<UUID> categoryIds) {
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.apitask.repositories;
 
 import com.example.apitask.models.Tasks;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -18,15 +16,28 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface TasksRepository extends JpaRepository<Tasks, UUID> {
-    @Query("select t from Tasks t where t.users.id = :userId and t.dateExpiration <= :date and t.completed = false order by t.dateExpiration desc")
-    Page<Tasks> findTasksDueUpToDate(@Param("userId") UUID userId, @Param("date") LocalDate date, Pageable pageable);
+public interface TasksRepository extends JpaRepository<Tasks, UUID>, TasksRepositoryCustom {
+    @Override
+    @EntityGraph(attributePaths = "categories")
+    List<Tasks> findAll();
 
-    Page<Tasks> findByUsersIdAndCompletedFalse(@Param("userId") UUID userId, Pageable pageable);
+    @Query("select count(t) from Tasks t where t.users.id = :userId and t.dateExpiration <= :date and t.completed = false")
+    long countTasksDueUpToDate(@Param("userId") UUID userId, @Param("date") LocalDate date);
 
-    Page<Tasks> findByUsersIdAndCompletedTrue(UUID userId, Pageable pageable);
+    long countByUsersIdAndCompletedFalse(UUID userId);
 
-    Page<Tasks> findAllByUsersId(UUID userId, Pageable pageable);
+    long countByUsersIdAndCompletedTrue(UUID userId);
+
+    long countByUsersId(UUID userId);
+
+    /**
+     * Completes the task only if it belongs to the user and is still pending, so of several concurrent
+     * toggles exactly one sees an updated row.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Tasks t set t.completed = true, t.dateConclusion = :today where t.id = :id and t.users.id = :userId and t.completed = false")
+    int markCompleted(@Param("id") UUID id, @Param("userId") UUID userId, @Param("today") LocalDate today);
 
     @Transactional
     @Modifying
@@ -0,0 +1,40 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.dtos.tasks.TaskExportRow;
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.dtos.tasks.TaskRow;
+import com.example.apitask.enums.TaskListFilter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface TasksRepositoryCustom {
+    Stream<TaskReminderRow> streamDueWithoutReminder(LocalDate dueDate, UUID afterId, int limit);
+
+    Stream<TaskReminderRow> streamDueWithoutReminderByUser(LocalDate dueDate, UUID afterUserId, int limit);
+
+    /**
+     * Returns one page of the user's tasks in (dateExpiration desc, id desc) order, projected straight
+     * into rows. {@code today} bounds the DUE filter.
+     */
+    List<TaskRow> findRows(UUID userId, TaskListFilter filter, LocalDate today, long offset, int limit);
+
+    /**
+     * Returns up to {@code limit} rows of the user's tasks that come after {@code after} (or from the
+     * start when it is null) in (dateExpiration desc, id desc) order.
+     */
+    List<TaskRow> findRowsAfter(UUID userId, TaskListFilter filter, LocalDate today, TaskCursor after, int limit);
+
+    List<TaskCategoryRow> findCategoryRows(Collection<UUID> taskIds);
+
+    /**
+     * Streams the tasks matching the export filters through a forward-only cursor. A null user exports
+     * every user's tasks; null filters are not applied.
+     */
+    Stream<TaskExportRow> streamForExport(UUID userId, Boolean completed, LocalDate from, LocalDate to);
+}
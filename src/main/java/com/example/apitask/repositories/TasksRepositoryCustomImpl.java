@@ -0,0 +1,154 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.dtos.tasks.TaskExportRow;
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.dtos.tasks.TaskRow;
+import com.example.apitask.enums.TaskListFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class TasksRepositoryCustomImpl implements TasksRepositoryCustom {
+    private static final String TASKS_OF_USER =
+            "select new com.example.apitask.dtos.tasks.TaskRow(t.id, t.name, t.description, t.completed, t.dateCreation, t.dateConclusion, t.dateExpiration) " +
+                    "from Tasks t where t.users.id = :userId ";
+    private static final String SEEK_AFTER = "and (t.dateExpiration, t.id) < (:afterDate, :afterId) ";
+    private static final String SEEK_ORDER = "order by t.dateExpiration desc, t.id desc";
+
+    private static final String CATEGORIES_OF_TASKS =
+            "select new com.example.apitask.dtos.tasks.TaskCategoryRow(t.id, c.id, c.name) " +
+                    "from Tasks t join t.categories c where t.id in :taskIds";
+
+    private static final String EXPORT_ROWS =
+            "select new com.example.apitask.dtos.tasks.TaskExportRow(t.id, t.users.id, t.name, t.description, t.completed, t.dateCreation, t.dateConclusion, t.dateExpiration) " +
+                    "from Tasks t ";
+
+    private static final String DUE_WITHOUT_REMINDER =
+            "select new com.example.apitask.dtos.tasks.TaskReminderRow(t.id, u.id, u.email, t.name, t.dateExpiration) " +
+                    "from Tasks t join t.users u " +
+                    "where t.completed = false and t.dateExpiration = :dueDate " +
+                    "and not exists (select r from TaskReminders r where r.tasksId = t.id and r.dueDate = t.dateExpiration) ";
+
+    private final EntityManager entityManager;
+    private final int fetchSize;
+
+    public TasksRepositoryCustomImpl(EntityManager entityManager, @Value("${reminder.fetch-size:200}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<TaskReminderRow> streamDueWithoutReminder(LocalDate dueDate, UUID afterId, int limit) {
+        return stream(DUE_WITHOUT_REMINDER + "and t.id > :after order by t.id", dueDate, afterId, limit);
+    }
+
+    @Override
+    public Stream<TaskReminderRow> streamDueWithoutReminderByUser(LocalDate dueDate, UUID afterUserId, int limit) {
+        return stream(DUE_WITHOUT_REMINDER + "and u.id > :after order by u.id, t.id", dueDate, afterUserId, limit);
+    }
+
+    private Stream<TaskReminderRow> stream(String jpql, LocalDate dueDate, UUID after, int limit) {
+        return entityManager.createQuery(jpql, TaskReminderRow.class)
+                .setParameter("dueDate", dueDate)
+                .setParameter("after", after)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<TaskRow> findRows(UUID userId, TaskListFilter filter, LocalDate today, long offset, int limit) {
+        return rowQuery(TASKS_OF_USER + filterClause(filter) + SEEK_ORDER, userId, filter, today)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskRow> findRowsAfter(UUID userId, TaskListFilter filter, LocalDate today, TaskCursor after, int limit) {
+        String jpql = TASKS_OF_USER + filterClause(filter) + (after != null ? SEEK_AFTER : "") + SEEK_ORDER;
+        TypedQuery<TaskRow> query = rowQuery(jpql, userId, filter, today).setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("afterDate", after.dateExpiration())
+                    .setParameter("afterId", after.id());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<TaskCategoryRow> findCategoryRows(Collection<UUID> taskIds) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(CATEGORIES_OF_TASKS, TaskCategoryRow.class)
+                .setParameter("taskIds", taskIds)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .getResultList();
+    }
+
+    private TypedQuery<TaskRow> rowQuery(String jpql, UUID userId, TaskListFilter filter, LocalDate today) {
+        TypedQuery<TaskRow> query = entityManager.createQuery(jpql, TaskRow.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        if (filter == TaskListFilter.DUE) {
+            query.setParameter("today", today);
+        }
+        return query;
+    }
+
+    private static String filterClause(TaskListFilter filter) {
+        return switch (filter) {
+            case DUE -> "and t.completed = false and t.dateExpiration <= :today ";
+            case PENDING -> "and t.completed = false ";
+            case COMPLETED -> "and t.completed = true ";
+            case ALL -> "";
+        };
+    }
+
+    @Override
+    public Stream<TaskExportRow> streamForExport(UUID userId, Boolean completed, LocalDate from, LocalDate to) {
+        StringBuilder jpql = new StringBuilder(EXPORT_ROWS).append("where 1 = 1 ");
+        if (userId != null) {
+            jpql.append("and t.users.id = :userId ");
+        }
+        if (completed != null) {
+            jpql.append("and t.completed = :completed ");
+        }
+        if (from != null) {
+            jpql.append("and t.dateExpiration >= :from ");
+        }
+        if (to != null) {
+            jpql.append("and t.dateExpiration <= :to ");
+        }
+        jpql.append("order by t.id");
+
+        TypedQuery<TaskExportRow> query = entityManager.createQuery(jpql.toString(), TaskExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        if (completed != null) {
+            query.setParameter("completed", completed);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        return query.getResultStream();
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.apitask.repositories;
 
+import com.example.apitask.dtos.leaderboard.LeaderboardRow;
+import com.example.apitask.dtos.users.UsersStreakRow;
 import com.example.apitask.models.Users;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +23,50 @@ public interface UsersRepository extends JpaRepository<Users, UUID> {
     @Query("SELECT u.pointers FROM Users u WHERE u.id = :id")
     Integer findPointersByUsersId(@Param("id") UUID id);
 
-    @Query("SELECT DISTINCT u FROM Users u LEFT JOIN FETCH u.tasks t WHERE t.completed = false AND t.dateExpiration <= :dateLimit")
-    List<Users> findUserWithPendingTasks(@Param("dateLimit") LocalDate dateLimit);
+    @Query("select new com.example.apitask.dtos.users.UsersStreakRow(u.pointers, u.streakData) from Users u where u.id = :id")
+    Optional<UsersStreakRow> findStreakByUsersId(@Param("id") UUID id);
+
+    /**
+     * Adds the daily point unless the streak was already extended today; the check and the increment
+     * are one statement, so concurrent completions cannot both award it. A streak last extended before
+     * yesterday has lapsed, so it starts over at one instead of building on the stale points.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Users u set u.pointers = case when u.streakData = :yesterday then u.pointers + 1 else 1 end, u.streakData = :today " +
+            "where u.id = :id and (u.streakData is null or u.streakData <> :today)")
+    int awardDailyPoint(@Param("id") UUID id, @Param("today") LocalDate today, @Param("yesterday") LocalDate yesterday);
+
+    /**
+     * Upper bound of the next range of at most {@code size} user ids after {@code after}, in the
+     * database's id order; null once every id has been covered. Postgres has no max(uuid), so the
+     * bound is the size-th id after {@code after}, or the last id when fewer remain.
+     */
+    default UUID findIdRangeEnd(UUID after, int size) {
+        List<UUID> end = findIdsAfter(after, PageRequest.of(size - 1, 1));
+        if (!end.isEmpty()) {
+            return end.getFirst();
+        }
+        List<UUID> last = findLastIdsAfter(after, PageRequest.of(0, 1));
+        return last.isEmpty() ? null : last.getFirst();
+    }
+
+    @Query("select u.id from Users u where u.id > :after order by u.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query("select u.id from Users u where u.id > :after order by u.id desc")
+    List<UUID> findLastIdsAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Modifying
+    @Query("update Users u set u.pointers = 0 where u.id > :after and u.id <= :until and u.pointers <> 0 " +
+            "and (u.streakData is null or u.streakData < :cutoff)")
+    int resetExpiredStreaks(@Param("after") UUID after, @Param("until") UUID until, @Param("cutoff") LocalDate cutoff);
+
+    @Query("select new com.example.apitask.dtos.leaderboard.LeaderboardRow(u.id, u.email, u.pointers) from Users u " +
+            "where u.pointers > 0 order by u.pointers desc, u.id")
+    List<LeaderboardRow> findLeaders(Pageable pageable);
+
+    @Query("select new com.example.apitask.dtos.leaderboard.LeaderboardRow(u.id, u.email, u.pointers) from Users u where u.id = :id")
+    Optional<LeaderboardRow> findLeaderboardRowByUsersId(@Param("id") UUID id);
+
+    long countByPointersGreaterThan(Integer pointers);
 }
@@ -0,0 +1,26 @@
+package com.example.apitask.scheduleds;
+
+import com.example.apitask.email.EmailOutboxRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EmailOutboxScheduled {
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxScheduled.class);
+
+    private final EmailOutboxRelay emailOutboxRelay;
+
+    public EmailOutboxScheduled(EmailOutboxRelay emailOutboxRelay) {
+        this.emailOutboxRelay = emailOutboxRelay;
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-ms:1000}")
+    public void relayOutbox() {
+        int relayed = emailOutboxRelay.relayPending();
+        if (relayed > 0) {
+            log.debug("Relayed {} outbox email messages", relayed);
+        }
+    }
+}
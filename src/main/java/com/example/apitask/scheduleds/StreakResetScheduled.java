@@ -0,0 +1,30 @@
+package com.example.apitask.scheduleds;
+
+import com.example.apitask.services.StreakResetService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+@Component
+public class StreakResetScheduled {
+    private static final Logger log = LoggerFactory.getLogger(StreakResetScheduled.class);
+
+    private final StreakResetService streakResetService;
+    private final Clock clock;
+
+    public StreakResetScheduled(StreakResetService streakResetService, Clock clock) {
+        this.streakResetService = streakResetService;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${streak.reset.cron:0 5 0 * * ?}", zone = "${app.time-zone:America/Sao_Paulo}")
+    public void resetExpiredStreaks() {
+        LocalDate today = LocalDate.now(clock);
+        int reset = streakResetService.resetExpiredStreaks(today);
+        log.info("Reset {} expired streaks for {}", reset, today);
+    }
+}
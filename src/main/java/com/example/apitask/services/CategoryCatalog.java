@@ -0,0 +1,126 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.models.Categories;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned copy of the categories table. Lookups read the current snapshot without
+ * touching the database; writes made through {@link CategoryService} swap in a new snapshot, and a
+ * periodic reload picks up changes made by other instances.
+ */
+@Component
+public class CategoryCatalog {
+
+    private final CategoriesRepository categoriesRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public CategoryCatalog(CategoriesRepository categoriesRepository, ObjectMapper objectMapper) {
+        this.categoriesRepository = categoriesRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    @Scheduled(fixedDelayString = "${categories.catalog.refresh-ms:60000}", initialDelayString = "${categories.catalog.refresh-ms:60000}")
+    public Snapshot reload() {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = loadFresh();
+            current.set(snapshot);
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void added(Categories category) {
+        update(byId -> byId.put(category.getId(), new CategoriesResponseDTO(category.getId(), category.getName())));
+    }
+
+    public void removed(UUID id) {
+        update(byId -> byId.remove(id));
+    }
+
+    /**
+     * Writers are serialized, so a local change waits for a reload in progress and is applied on top
+     * of what it read instead of being overwritten by it; readers never take the lock.
+     */
+    private void update(Consumer<Map<UUID, CategoriesResponseDTO>> change) {
+        writeLock.lock();
+        try {
+            Snapshot base = current.get();
+            Map<UUID, CategoriesResponseDTO> byId = new LinkedHashMap<>((base != null ? base : loadFresh()).byId());
+            change.accept(byId);
+            current.set(build(byId.values()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot loadFresh() {
+        return build(categoriesRepository.findAll().stream()
+                .map(category -> new CategoriesResponseDTO(category.getId(), category.getName()))
+                .toList());
+    }
+
+    private Snapshot build(Collection<CategoriesResponseDTO> categories) {
+        return Snapshot.of(versions.incrementAndGet(), categories, objectMapper);
+    }
+
+    public record Snapshot(long version, Map<UUID, CategoriesResponseDTO> byId, Set<String> names, byte[] json, String etag) {
+
+        public static Snapshot of(long version, Collection<CategoriesResponseDTO> categories, ObjectMapper objectMapper) {
+            List<CategoriesResponseDTO> sorted = categories.stream()
+                    .sorted(Comparator.comparing(CategoriesResponseDTO::name))
+                    .toList();
+            Map<UUID, CategoriesResponseDTO> byId = new LinkedHashMap<>();
+            sorted.forEach(category -> byId.put(category.id(), category));
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(sorted);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize category catalog", e);
+            }
+            Set<String> names = sorted.stream().map(CategoriesResponseDTO::name).collect(Collectors.toUnmodifiableSet());
+            return new Snapshot(version, Collections.unmodifiableMap(byId), names, json, "\"0" + DigestUtils.md5DigestAsHex(json) + "\"");
+        }
+
+        public boolean contains(UUID id) {
+            return byId.containsKey(id);
+        }
+
+        public boolean existsByName(String name) {
+            return names.contains(name);
+        }
+
+        public List<CategoriesResponseDTO> categories() {
+            return List.copyOf(byId.values());
+        }
+    }
+}
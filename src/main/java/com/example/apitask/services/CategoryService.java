@@ -8,6 +8,7 @@ import com.example.apitask.mappers.CategoriesMapper;
 import com.example.apitask.models.Categories;
 import com.example.apitask.repositories.CategoriesRepository;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,30 +19,43 @@ public class CategoryService {
 
     private final CategoriesRepository categoriesRepository;
     private final CategoriesMapper categoriesMapper;
+    private final CategoryCatalog categoryCatalog;
 
-    public CategoryService(CategoriesRepository categoriesRepository, CategoriesMapper categoriesMapper) {
+    public CategoryService(CategoriesRepository categoriesRepository, CategoriesMapper categoriesMapper, CategoryCatalog categoryCatalog) {
         this.categoriesRepository = categoriesRepository;
         this.categoriesMapper = categoriesMapper;
+        this.categoryCatalog = categoryCatalog;
     }
 
 
     public CategoriesResponseDTO createCategory(@Valid CategorieRequestDTO categoriesDTO) {
-        if(categoriesRepository.existsByName(categoriesDTO.name())) {
+        if(categoryCatalog.snapshot().existsByName(categoriesDTO.name())) {
             throw new DuplicateResourceException("Category already exists");
         }
         Categories categories = categoriesMapper.toEntity(categoriesDTO);
-        categoriesRepository.save(categories);
+        try {
+            categoriesRepository.save(categories);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("Category already exists");
+        }
+        categoryCatalog.added(categories);
         return categoriesMapper.toDTO(categories);
     }
 
     public List<CategoriesResponseDTO> findAllCategory() {
-        List<Categories> categoriesList = categoriesRepository.findAll();
-        return categoriesMapper.toListResponse(categoriesList);
+        return categoryCatalog.snapshot().categories();
+    }
+
+    public CategoryCatalog.Snapshot catalog() {
+        return categoryCatalog.snapshot();
     }
 
     public String deleteCategoryId(UUID id) {
-        categoriesRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("category not found"));
+        if (!categoryCatalog.snapshot().contains(id) && !categoriesRepository.existsById(id)) {
+            throw new ResourceNotFoundException("category not found");
+        }
         categoriesRepository.deleteById(id);
+        categoryCatalog.removed(id);
         return "Category deleted successfully";
     }
 }
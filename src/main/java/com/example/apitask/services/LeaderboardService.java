@@ -0,0 +1,144 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.leaderboard.LeaderboardEntryDTO;
+import com.example.apitask.dtos.leaderboard.LeaderboardRow;
+import com.example.apitask.repositories.UsersRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the K users with the most points in memory, ordered by points and then id. Point changes are
+ * applied as they happen; the set is only reloaded from the database at startup, after the nightly
+ * streak reset, and when a member drops out of a full set, since only then is the next user unknown.
+ * Every change publishes an immutable ranked list, so reads never take the lock.
+ */
+@Service
+public class LeaderboardService {
+    private static final Comparator<LeaderboardRow> ORDER = Comparator.comparing(LeaderboardRow::pointers).reversed()
+            .thenComparing(LeaderboardRow::userId);
+
+    private final UsersRepository usersRepository;
+    private final int size;
+    private final TreeSet<LeaderboardRow> top = new TreeSet<>(ORDER);
+    private final Map<UUID, LeaderboardRow> members = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile List<LeaderboardEntryDTO> ranking = List.of();
+
+    public LeaderboardService(UsersRepository usersRepository, @Value("${leaderboard.size:100}") int size) {
+        this.usersRepository = usersRepository;
+        this.size = size;
+    }
+
+    /**
+     * Reloads the set from the database. Writers hold a {@link ReentrantLock} rather than a monitor,
+     * so a virtual thread waiting on this query does not pin its carrier.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            top.clear();
+            members.clear();
+            for (LeaderboardRow row : usersRepository.findLeaders(PageRequest.of(0, size))) {
+                top.add(row);
+                members.put(row.userId(), row);
+            }
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void update(UUID userId, String email, int pointers) {
+        lock.lock();
+        try {
+            LeaderboardRow previous = members.remove(userId);
+            if (previous != null) {
+                top.remove(previous);
+                if (pointers < previous.pointers() && top.size() + 1 == size) {
+                    rebuild();
+                    return;
+                }
+            }
+            LeaderboardRow row = new LeaderboardRow(userId, email, pointers);
+            if (pointers > 0 && (top.size() < size || ORDER.compare(row, top.last()) < 0)) {
+                top.add(row);
+                members.put(userId, row);
+                if (top.size() > size) {
+                    members.remove(top.pollLast().userId());
+                }
+            }
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(UUID userId) {
+        lock.lock();
+        try {
+            LeaderboardRow previous = members.remove(userId);
+            if (previous == null) {
+                return;
+            }
+            top.remove(previous);
+            if (top.size() + 1 == size) {
+                rebuild();
+            } else {
+                publish();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<LeaderboardEntryDTO> top(int limit) {
+        List<LeaderboardEntryDTO> current = ranking;
+        return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+    }
+
+    /**
+     * Members are answered from the ranked list; anyone else is ranked by counting the users with more
+     * points, which the pointers index answers without touching the rows.
+     */
+    public Optional<LeaderboardEntryDTO> rankOf(UUID userId) {
+        for (LeaderboardEntryDTO entry : ranking) {
+            if (entry.userId().equals(userId)) {
+                return Optional.of(entry);
+            }
+        }
+        return usersRepository.findLeaderboardRowByUsersId(userId)
+                .map(row -> toEntry(usersRepository.countByPointersGreaterThan(row.pointers()) + 1, row));
+    }
+
+    private void publish() {
+        List<LeaderboardEntryDTO> entries = new ArrayList<>(top.size());
+        long rank = 0;
+        Integer lastPointers = null;
+        for (LeaderboardRow row : top) {
+            if (!row.pointers().equals(lastPointers)) {
+                rank = entries.size() + 1;
+                lastPointers = row.pointers();
+            }
+            entries.add(toEntry(rank, row));
+        }
+        ranking = List.copyOf(entries);
+    }
+
+    private static LeaderboardEntryDTO toEntry(long rank, LeaderboardRow row) {
+        return new LeaderboardEntryDTO(rank, row.userId(), row.email().split("@")[0], row.pointers());
+    }
+}
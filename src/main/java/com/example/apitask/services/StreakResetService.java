@@ -0,0 +1,73 @@
+package com.example.apitask.services;
+
+import com.example.apitask.repositories.UsersRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeroes the points of every user whose streak has lapsed, so the pointers column is accurate for
+ * queries that do not apply the read-time decay. Users are walked in primary-key ranges, one
+ * set-based UPDATE and one transaction per range, which keeps row locks short on a large table.
+ */
+@Service
+public class StreakResetService {
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final UsersRepository usersRepository;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Timer duration;
+    private final Counter resetRows;
+
+    public StreakResetService(UsersRepository usersRepository, LeaderboardService leaderboardService, PlatformTransactionManager transactionManager,
+                              @Value("${streak.reset.chunk-size:5000}") int chunkSize, MeterRegistry meterRegistry) {
+        this.usersRepository = usersRepository;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.duration = Timer.builder("streak.reset.duration")
+                .description("Time taken by a nightly streak reset run")
+                .register(meterRegistry);
+        this.resetRows = Counter.builder("streak.reset.rows")
+                .description("Users whose lapsed streak was reset")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A streak extended yesterday is still alive today, so anything older than the day before
+     * {@code today} is reset. Returns how many users were reset.
+     */
+    public int resetExpiredStreaks(LocalDate today) {
+        LocalDate cutoff = today.minusDays(1);
+        long start = System.nanoTime();
+        UUID after = FIRST_ID;
+        int reset = 0;
+        while (true) {
+            UUID from = after;
+            UUID until = usersRepository.findIdRangeEnd(from, chunkSize);
+            if (until == null) {
+                break;
+            }
+            Integer updated = transactionTemplate.execute(status -> usersRepository.resetExpiredStreaks(from, until, cutoff));
+            reset += updated == null ? 0 : updated;
+            after = until;
+        }
+        duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        resetRows.increment(reset);
+        if (reset > 0) {
+            leaderboardService.rebuild();
+        }
+        return reset;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskBulkItemResultDTO;
+import com.example.apitask.dtos.tasks.TasksBulkResponseDTO;
+import com.example.apitask.dtos.tasks.TasksRequestDTO;
+import com.example.apitask.exceptions.BulkLimitExceededException;
+import com.example.apitask.helpers.AfterCommit;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.example.apitask.repositories.TasksBulkRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Creates many tasks for the current user in one transaction. Every item is checked up front against
+ * the column limits and the categories table; the valid ones are written with JDBC batches and the
+ * rest are reported back by their position in the request. The referenced categories are looked up
+ * in the database rather than the catalog snapshot and stay share-locked until commit, so a category
+ * created or deleted on another instance is neither wrongly rejected nor turned into a foreign-key
+ * failure for the whole request.
+ */
+@Service
+public class TaskBulkService {
+    private static final int MAX_NAME = 100;
+    private static final int MAX_DESCRIPTION = 255;
+
+    private final TasksBulkRepository tasksBulkRepository;
+    private final TokenService tokenService;
+    private final CategoriesRepository categoriesRepository;
+    private final TaskCountCache taskCountCache;
+    private final int maxItems;
+
+    public TaskBulkService(TasksBulkRepository tasksBulkRepository, TokenService tokenService, CategoriesRepository categoriesRepository, TaskCountCache taskCountCache,
+                           @Value("${tasks.bulk.max-items:10000}") int maxItems) {
+        this.tasksBulkRepository = tasksBulkRepository;
+        this.tokenService = tokenService;
+        this.categoriesRepository = categoriesRepository;
+        this.taskCountCache = taskCountCache;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public TasksBulkResponseDTO createTasks(List<TasksRequestDTO> requests) {
+        if (requests.size() > maxItems) {
+            throw new BulkLimitExceededException("at most " + maxItems + " tasks per request");
+        }
+        Users currentUser = tokenService.getCurrentUser();
+        Set<UUID> categories = categoriesRepository.lockExistingIds(referencedCategories(requests));
+        LocalDate today = LocalDate.now();
+
+        List<TasksBulkRepository.NewTask> accepted = new ArrayList<>(requests.size());
+        List<TaskBulkItemResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TasksRequestDTO request = requests.get(i);
+            String error = validate(request, categories::contains);
+            if (error != null) {
+                results.add(new TaskBulkItemResultDTO(i, null, error));
+                continue;
+            }
+            UUID id = UUID.randomUUID();
+            Set<UUID> categoryIds = request.categoryIds() == null ? Set.of() : request.categoryIds();
+            accepted.add(new TasksBulkRepository.NewTask(id, request.name(), request.description(), today, request.dateExpiration(), categoryIds));
+            results.add(new TaskBulkItemResultDTO(i, id, null));
+        }
+
+        if (!accepted.isEmpty()) {
+            tasksBulkRepository.insert(currentUser.getId(), accepted);
+            AfterCommit.run(() -> taskCountCache.invalidateUser(currentUser.getId()));
+        }
+        return new TasksBulkResponseDTO(accepted.size(), requests.size() - accepted.size(), results);
+    }
+
+    static Set<UUID> referencedCategories(Collection<TasksRequestDTO> requests) {
+        Set<UUID> ids = new HashSet<>();
+        for (TasksRequestDTO request : requests) {
+            if (request != null && request.categoryIds() != null) {
+                ids.addAll(request.categoryIds());
+            }
+        }
+        return ids;
+    }
+
+    static String validate(TasksRequestDTO request, Predicate<UUID> categoryExists) {
+        if (request == null) {
+            return "task is required";
+        }
+        if (request.name() == null || request.name().isBlank() || request.name().length() > MAX_NAME) {
+            return "name is required and must have at most " + MAX_NAME + " characters";
+        }
+        if (request.description() == null || request.description().isBlank() || request.description().length() > MAX_DESCRIPTION) {
+            return "description is required and must have at most " + MAX_DESCRIPTION + " characters";
+        }
+        if (request.dateExpiration() == null) {
+            return "dateExpiration is required";
+        }
+        if (request.categoryIds() != null && !request.categoryIds().stream().allMatch(categoryExists)) {
+            return "category not found";
+        }
+        return null;
+    }
+}
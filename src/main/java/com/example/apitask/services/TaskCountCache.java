@@ -0,0 +1,55 @@
+package com.example.apitask.services;
+
+import com.example.apitask.enums.TaskListFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user task counts behind the approximate totals of the listing endpoints. A count is taken at
+ * most once per ttl for each user and filter, and is dropped early when the user's tasks change.
+ * Entries are keyed by user, each holding the counts of that user's filters, so a write drops the
+ * user's counts with a single removal instead of a scan over the whole cache.
+ */
+@Component
+public class TaskCountCache {
+
+    private final Cache<UUID, Map<TaskListFilter, Long>> cache;
+
+    public TaskCountCache(@Value("${tasks.count-cache.max-size:10000}") long maxSize,
+                          @Value("${tasks.count-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * The count runs outside the cache's compute lock: a query inside it would hold a monitor across
+     * JDBC I/O and pin the carrier when requests run on virtual threads. The user's entry is taken
+     * before counting and the result is stored in that entry, not looked up again: if a write
+     * invalidates the user while the count runs, the entry is no longer in the cache, so a count taken
+     * before the write is returned to this caller only and never served to later ones.
+     */
+    public long get(UUID userId, TaskListFilter filter, LongSupplier counter) {
+        Map<TaskListFilter, Long> counts = cache.get(userId, id -> new ConcurrentHashMap<>());
+        Long cached = counts.get(filter);
+        if (cached != null) {
+            return cached;
+        }
+        long count = counter.getAsLong();
+        counts.put(filter, count);
+        return count;
+    }
+
+    public void invalidateUser(UUID userId) {
+        cache.invalidate(userId);
+    }
+}
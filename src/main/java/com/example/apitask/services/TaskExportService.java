@@ -0,0 +1,132 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskExportRow;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.TasksRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes tasks to the response as they come off a forward-only cursor, one line per task, so the
+ * export never holds more than the driver's fetch window in memory. The cursor is opened inside a
+ * read-only transaction on the thread that writes the body and reads plain rows, not entities, so
+ * nothing accumulates in the persistence context.
+ */
+@Service
+public class TaskExportService {
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "id,userId,name,description,completed,dateCreation,dateConclusion,dateExpiration";
+
+    private final TasksRepository tasksRepository;
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskExportService(TasksRepository tasksRepository, TokenService tokenService, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.tasksRepository = tasksRepository;
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Resolves the caller and checks the scope right away, while the security context is still
+     * available; the returned body does the actual reading once the response starts.
+     */
+    public StreamingResponseBody export(TaskExportFormat format, Boolean completed, LocalDate from, LocalDate to, boolean allUsers) {
+        Users currentUser = tokenService.getCurrentUser();
+        if (allUsers && currentUser.getRole() != UsersRole.ADMIN) {
+            throw new AccessDeniedException("only admins can export the tasks of every user");
+        }
+        UUID userId = allUsers ? null : currentUser.getId();
+
+        return output -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TaskExportRow> rows = tasksRepository.streamForExport(userId, completed, from, to)) {
+                if (format == TaskExportFormat.CSV) {
+                    writeCsv(rows, output);
+                } else {
+                    writeNdjson(rows, output);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Stream<TaskExportRow> rows, OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            int written = 0;
+            for (TaskExportRow row : (Iterable<TaskExportRow>) rows::iterator) {
+                objectMapper.writeValue(generator, row);
+                generator.writeRaw('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void writeCsv(Stream<TaskExportRow> rows, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int written = 0;
+        for (TaskExportRow row : (Iterable<TaskExportRow>) rows::iterator) {
+            writer.write(row.id().toString());
+            writer.write(',');
+            writer.write(row.userId().toString());
+            writer.write(',');
+            writer.write(csv(row.name()));
+            writer.write(',');
+            writer.write(csv(row.description()));
+            writer.write(',');
+            writer.write(Boolean.toString(row.completed()));
+            writer.write(',');
+            writer.write(csv(row.dateCreation()));
+            writer.write(',');
+            writer.write(csv(row.dateConclusion()));
+            writer.write(',');
+            writer.write(csv(row.dateExpiration()));
+            writer.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskImportRejectDTO;
+import com.example.apitask.dtos.tasks.TaskImportReportDTO;
+import com.example.apitask.dtos.tasks.TasksRequestDTO;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.exceptions.InvalidImportException;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.example.apitask.repositories.TasksBulkRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Imports tasks for the current user from an NDJSON or CSV upload. The body is parsed one row at a
+ * time and accepted rows are written in batches, each in its own transaction, so memory is bounded by
+ * the batch size no matter how large the upload is. The checkpoint in the report is the number of
+ * rows already committed: when a batch fails the import stops there, and sending the same file again
+ * with that value as {@code resumeFrom} skips the rows that made it in. Categories are checked
+ * against the database inside each batch's transaction and stay share-locked until it commits, and a
+ * row longer than the configured limit is rejected without being held in memory.
+ */
+@Service
+public class TaskImportService {
+    private static final Logger log = LoggerFactory.getLogger(TaskImportService.class);
+
+    private final TasksBulkRepository tasksBulkRepository;
+    private final TokenService tokenService;
+    private final CategoriesRepository categoriesRepository;
+    private final TaskCountCache taskCountCache;
+    private final ObjectReader requestReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultBatchSize;
+    private final int maxBatchSize;
+    private final int maxReportedRejects;
+    private final int maxRowLength;
+
+    public TaskImportService(TasksBulkRepository tasksBulkRepository, TokenService tokenService, CategoriesRepository categoriesRepository,
+                             TaskCountCache taskCountCache, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                             @Value("${tasks.import.batch-size:500}") int defaultBatchSize,
+                             @Value("${tasks.import.max-batch-size:5000}") int maxBatchSize,
+                             @Value("${tasks.import.max-reported-rejects:100}") int maxReportedRejects,
+                             @Value("${tasks.import.max-row-length:65536}") int maxRowLength) {
+        this.tasksBulkRepository = tasksBulkRepository;
+        this.tokenService = tokenService;
+        this.categoriesRepository = categoriesRepository;
+        this.taskCountCache = taskCountCache;
+        this.requestReader = objectMapper.readerFor(TasksRequestDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxReportedRejects = maxReportedRejects;
+        this.maxRowLength = maxRowLength;
+    }
+
+    public TaskImportReportDTO importTasks(InputStream input, TaskExportFormat format, long resumeFrom, Integer batchSize) {
+        int size = batchSize == null ? defaultBatchSize : batchSize;
+        if (size < 1 || size > maxBatchSize) {
+            throw new InvalidImportException("batchSize must be between 1 and " + maxBatchSize);
+        }
+        if (resumeFrom < 0) {
+            throw new InvalidImportException("resumeFrom must not be negative");
+        }
+        Users currentUser = tokenService.getCurrentUser();
+        LocalDate today = LocalDate.now();
+        LineReader reader = new LineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxRowLength);
+        RowSource rows = format == TaskExportFormat.CSV ? new CsvRows(reader) : new NdjsonRows(reader, requestReader);
+
+        long start = System.nanoTime();
+        long row = 0;
+        long checkpoint = resumeFrom;
+        long imported = 0;
+        long rejected = 0;
+        List<TaskImportRejectDTO> rejects = new ArrayList<>();
+        List<BatchRow> batch = new ArrayList<>(size);
+        List<TaskImportRejectDTO> batchRejects = new ArrayList<>();
+        try {
+            for (ParsedRow parsed = rows.next(); parsed != null; parsed = rows.next()) {
+                if (++row <= resumeFrom) {
+                    continue;
+                }
+                // Categories are checked when the batch is committed, against the database.
+                String error = parsed.error() != null ? parsed.error() : TaskBulkService.validate(parsed.request(), id -> true);
+                if (error != null) {
+                    batchRejects.add(new TaskImportRejectDTO(row, error));
+                } else {
+                    batch.add(new BatchRow(row, toNewTask(parsed.request(), today)));
+                }
+                if (batch.size() == size) {
+                    imported += commit(currentUser.getId(), batch, batchRejects);
+                    rejected += report(batchRejects, rejects);
+                    checkpoint = row;
+                    batch = new ArrayList<>(size);
+                    log.info("Task import for user {}: {} rows committed, {} imported, {} rejected, {} rows/s",
+                            currentUser.getId(), checkpoint, imported, rejected, Math.round(rate(row - resumeFrom, start)));
+                }
+            }
+            imported += commit(currentUser.getId(), batch, batchRejects);
+            rejected += report(batchRejects, rejects);
+            checkpoint = Math.max(row, resumeFrom);
+        } catch (DataAccessException | TransactionException | UncheckedIOException e) {
+            log.warn("Task import for user {} stopped after row {}", currentUser.getId(), checkpoint, e);
+            return new TaskImportReportDTO(false, row, imported, rejected, checkpoint, rate(row - resumeFrom, start), rejects,
+                    "import stopped after row " + checkpoint + ": " + e.getMessage());
+        }
+        return new TaskImportReportDTO(true, row, imported, rejected, checkpoint, rate(row - resumeFrom, start), rejects, null);
+    }
+
+    /**
+     * Inserts the rows of the batch whose categories all exist and adds the others to
+     * {@code batchRejects}. Returns how many rows were inserted.
+     */
+    private int commit(UUID userId, List<BatchRow> batch, List<TaskImportRejectDTO> batchRejects) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<TaskImportRejectDTO> missingCategories = new ArrayList<>();
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<UUID> referenced = new HashSet<>();
+            batch.forEach(batchRow -> referenced.addAll(batchRow.task().categoryIds()));
+            Set<UUID> existing = categoriesRepository.lockExistingIds(referenced);
+            List<TasksBulkRepository.NewTask> tasks = new ArrayList<>(batch.size());
+            for (BatchRow batchRow : batch) {
+                if (existing.containsAll(batchRow.task().categoryIds())) {
+                    tasks.add(batchRow.task());
+                } else {
+                    missingCategories.add(new TaskImportRejectDTO(batchRow.row(), "category not found"));
+                }
+            }
+            if (!tasks.isEmpty()) {
+                tasksBulkRepository.insert(userId, tasks);
+            }
+            return tasks.size();
+        });
+        batchRejects.addAll(missingCategories);
+        taskCountCache.invalidateUser(userId);
+        return inserted == null ? 0 : inserted;
+    }
+
+    private int report(List<TaskImportRejectDTO> batchRejects, List<TaskImportRejectDTO> rejects) {
+        batchRejects.sort(Comparator.comparingLong(TaskImportRejectDTO::row));
+        int count = batchRejects.size();
+        for (TaskImportRejectDTO reject : batchRejects) {
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(reject);
+            }
+        }
+        batchRejects.clear();
+        return count;
+    }
+
+    private static TasksBulkRepository.NewTask toNewTask(TasksRequestDTO request, LocalDate today) {
+        Set<UUID> categoryIds = request.categoryIds() == null ? Set.of() : request.categoryIds();
+        return new TasksBulkRepository.NewTask(UUID.randomUUID(), request.name(), request.description(), today, request.dateExpiration(), categoryIds);
+    }
+
+    private static double rate(long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    private record ParsedRow(TasksRequestDTO request, String error) {
+    }
+
+    private record BatchRow(long row, TasksBulkRepository.NewTask task) {
+    }
+
+    private interface RowSource {
+        /**
+         * Returns the next row, or null once the input is exhausted.
+         */
+        ParsedRow next();
+    }
+
+    private static final class NdjsonRows implements RowSource {
+        private final LineReader reader;
+        private final ObjectReader requestReader;
+
+        NdjsonRows(LineReader reader, ObjectReader requestReader) {
+            this.reader = reader;
+            this.requestReader = requestReader;
+        }
+
+        @Override
+        public ParsedRow next() {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && !reader.tooLong() && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            if (reader.tooLong()) {
+                return new ParsedRow(null, reader.tooLongError());
+            }
+            try {
+                return new ParsedRow(requestReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(null, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads RFC 4180 records, so quoted fields may hold commas, doubled quotes and line breaks. Columns
+     * are matched by header name, which lets a file written by the export be imported as it is.
+     */
+    private static final class CsvRows implements RowSource {
+        private final LineReader reader;
+        private final int name;
+        private final int description;
+        private final int dateExpiration;
+        private final int categoryIds;
+        private boolean tooLong;
+
+        CsvRows(LineReader reader) {
+            this.reader = reader;
+            List<String> header = record();
+            if (header == null) {
+                throw new InvalidImportException("CSV header is missing");
+            }
+            if (tooLong) {
+                throw new InvalidImportException(reader.tooLongError());
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            if (!columns.keySet().containsAll(List.of("name", "description", "dateExpiration"))) {
+                throw new InvalidImportException("CSV header must have name, description and dateExpiration columns");
+            }
+            this.name = columns.get("name");
+            this.description = columns.get("description");
+            this.dateExpiration = columns.get("dateExpiration");
+            this.categoryIds = columns.getOrDefault("categoryIds", -1);
+        }
+
+        @Override
+        public ParsedRow next() {
+            List<String> fields;
+            do {
+                fields = record();
+            } while (fields != null && fields.size() == 1 && fields.getFirst().isBlank());
+            if (fields == null) {
+                return null;
+            }
+            if (tooLong) {
+                tooLong = false;
+                return new ParsedRow(null, reader.tooLongError());
+            }
+            LocalDate date;
+            try {
+                String value = field(fields, dateExpiration);
+                date = value == null ? null : LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                return new ParsedRow(null, "dateExpiration must be an ISO date");
+            }
+            Set<UUID> categories = null;
+            String ids = field(fields, categoryIds);
+            if (ids != null) {
+                categories = new LinkedHashSet<>();
+                for (String id : ids.split(";")) {
+                    try {
+                        categories.add(UUID.fromString(id.trim()));
+                    } catch (IllegalArgumentException e) {
+                        return new ParsedRow(null, "invalid category id " + id.trim());
+                    }
+                }
+            }
+            return new ParsedRow(new TasksRequestDTO(field(fields, name), field(fields, description), date, categories), null);
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        /**
+         * Returns the fields of the next record, or null at the end of the input. A record over the row
+         * length limit comes back empty with {@code tooLong} set; a physical line over the limit ends
+         * the record, since the quotes in its dropped text cannot be tracked.
+         */
+        private List<String> record() {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            if (reader.tooLong()) {
+                tooLong = true;
+                return List.of();
+            }
+            int length = line.length();
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    length += line.length() + 1;
+                    if (reader.tooLong()) {
+                        tooLong = true;
+                        break;
+                    }
+                    if (length > reader.maxLength()) {
+                        tooLong = true;
+                        fields.clear();
+                        field.setLength(0);
+                    }
+                    if (!tooLong) {
+                        field.append('\n');
+                    }
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (tooLong) {
+                    // Only the quotes matter once the record is over the limit.
+                    if (c == '"') {
+                        quoted = !quoted;
+                    }
+                } else if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (tooLong) {
+                return List.of();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Splits the input into lines like {@link java.io.BufferedReader#readLine()}, but never holds more than
+     * {@code maxLength} characters of one line: the rest of a longer line is skipped and the line comes
+     * back empty with {@link #tooLong()} set.
+     */
+    static final class LineReader {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        int maxLength() {
+            return maxLength;
+        }
+
+        boolean tooLong() {
+            return tooLong;
+        }
+
+        String tooLongError() {
+            return "row is longer than " + maxLength + " characters";
+        }
+
+        /**
+         * Returns the next line without its terminator, or null at the end of the input.
+         */
+        String readLine() {
+            StringBuilder line = new StringBuilder();
+            boolean read = false;
+            tooLong = false;
+            while (true) {
+                if (position == limit && !fill()) {
+                    return read ? finish(line) : null;
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                if (!tooLong) {
+                    // One extra character leaves room for the \r of a \r\n terminator.
+                    if (line.length() + position - start > maxLength + 1) {
+                        tooLong = true;
+                        line.setLength(0);
+                    } else {
+                        line.append(buffer, start, position - start);
+                    }
+                }
+                if (position < limit) {
+                    position++;
+                    return finish(line);
+                }
+            }
+        }
+
+        private String finish(StringBuilder line) {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            if (line.length() > maxLength) {
+                tooLong = true;
+                line.setLength(0);
+            }
+            return line.toString();
+        }
+
+        private boolean fill() {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.email.EmailPublisher;
+import com.example.apitask.enums.ReminderMode;
+import com.example.apitask.repositories.TaskRemindersRepository;
+import com.example.apitask.repositories.TasksRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Sends reminders for the pending tasks due on a given day, either one email per task or, in digest
+ * mode, one email per user listing all of their due tasks. Rows are walked in keyset order, one chunk
+ * per transaction, and every task reminded is recorded in task_reminders so the next run only sees
+ * tasks that are new or whose due date moved. Each chunk is read through a forward-only cursor of
+ * the columns the email needs, and the persistence context is cleared between chunks.
+ *
+ * <p>A task is recorded only after the broker confirmed its email. The confirms are awaited once the
+ * chunk's read transaction is over, so no connection is held while waiting, and the confirmed tasks
+ * are then recorded in a short transaction of their own. Tasks whose email was not confirmed stay
+ * unrecorded and are picked up again by the next run; a chunk with any such task ends the run.
+ */
+@Service
+public class TaskReminderService {
+    private static final Logger log = LoggerFactory.getLogger(TaskReminderService.class);
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final TasksRepository tasksRepository;
+    private final TaskRemindersRepository taskRemindersRepository;
+    private final EmailPublisher emailPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ReminderMode mode;
+    private final long confirmTimeoutMillis;
+
+    public TaskReminderService(TasksRepository tasksRepository, TaskRemindersRepository taskRemindersRepository, EmailPublisher emailPublisher,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager,
+                               @Value("${reminder.chunk-size:500}") int chunkSize,
+                               @Value("${reminder.mode:PER_TASK}") ReminderMode mode,
+                               @Value("${reminder.confirm-timeout-ms:30000}") long confirmTimeoutMillis) {
+        this.tasksRepository = tasksRepository;
+        this.taskRemindersRepository = taskRemindersRepository;
+        this.emailPublisher = emailPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.mode = mode;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    /**
+     * Returns how many tasks were reminded; in digest mode several of them may share one email.
+     */
+    public int sendDueReminders(LocalDate dueDate) {
+        return mode == ReminderMode.DIGEST ? sendDigests(dueDate) : sendPerTask(dueDate);
+    }
+
+    private int sendPerTask(LocalDate dueDate) {
+        UUID afterId = FIRST_ID;
+        int sent = 0;
+        while (true) {
+            UUID from = afterId;
+            List<Sent> chunk = transactionTemplate.execute(status -> sendChunk(dueDate, from));
+            if (chunk == null || chunk.isEmpty()) {
+                return sent;
+            }
+            int confirmed = recordConfirmed(chunk);
+            sent += confirmed;
+            if (chunk.size() < chunkSize || confirmed < chunk.size()) {
+                return sent;
+            }
+            afterId = chunk.getLast().taskIds().getFirst();
+        }
+    }
+
+    private List<Sent> sendChunk(LocalDate dueDate, UUID afterId) {
+        List<Sent> sent = new ArrayList<>(chunkSize);
+        try (Stream<TaskReminderRow> rows = tasksRepository.streamDueWithoutReminder(dueDate, afterId, chunkSize)) {
+            rows.forEach(row -> sent.add(new Sent(List.of(row.taskId()), emailPublisher.sendTaskEmail(row))));
+        }
+        entityManager.clear();
+        return sent;
+    }
+
+    private int sendDigests(LocalDate dueDate) {
+        UUID afterUserId = FIRST_ID;
+        int sent = 0;
+        while (true) {
+            UUID from = afterUserId;
+            DigestChunk chunk = transactionTemplate.execute(status -> sendDigestChunk(dueDate, from));
+            if (chunk == null || chunk.sent().isEmpty()) {
+                return sent;
+            }
+            int confirmed = recordConfirmed(chunk.sent());
+            sent += confirmed;
+            int reminded = chunk.sent().stream().mapToInt(digest -> digest.taskIds().size()).sum();
+            if (!chunk.full() || confirmed < reminded) {
+                return sent;
+            }
+            afterUserId = chunk.lastUserId();
+        }
+    }
+
+    /**
+     * Rows arrive ordered by user, so each user's tasks are consecutive and are folded into one digest
+     * as the cursor moves. When the chunk is full the last user's tasks may continue past the limit, so
+     * that group is held back for the next chunk, unless it is the only one: then it is sent as it is
+     * and the user's remaining tasks, not yet recorded, make up the next digest.
+     */
+    private DigestChunk sendDigestChunk(LocalDate dueDate, UUID afterUserId) {
+        List<Sent> sent = new ArrayList<>();
+        List<TaskReminderRow> group = new ArrayList<>();
+        UUID lastSentUserId = afterUserId;
+        int rowCount = 0;
+        try (Stream<TaskReminderRow> rows = tasksRepository.streamDueWithoutReminderByUser(dueDate, afterUserId, chunkSize)) {
+            for (TaskReminderRow row : (Iterable<TaskReminderRow>) rows::iterator) {
+                rowCount++;
+                if (!group.isEmpty() && !group.getFirst().userId().equals(row.userId())) {
+                    lastSentUserId = sendDigest(group, sent);
+                    group.clear();
+                }
+                group.add(row);
+            }
+        }
+
+        boolean full = rowCount == chunkSize;
+        if (!group.isEmpty() && (!full || sent.isEmpty())) {
+            UUID groupUserId = sendDigest(group, sent);
+            if (!full) {
+                lastSentUserId = groupUserId;
+            }
+        }
+        entityManager.clear();
+        return new DigestChunk(sent, full, lastSentUserId);
+    }
+
+    private UUID sendDigest(List<TaskReminderRow> group, List<Sent> sent) {
+        List<TaskReminderRow> digest = List.copyOf(group);
+        sent.add(new Sent(digest.stream().map(TaskReminderRow::taskId).toList(), emailPublisher.sendTaskDigest(digest)));
+        return digest.getFirst().userId();
+    }
+
+    /**
+     * Waits, up to one deadline for the whole chunk, for the broker to confirm the chunk's emails and
+     * records the tasks whose email was confirmed. Returns how many tasks were recorded.
+     */
+    private int recordConfirmed(List<Sent> sent) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        List<UUID> confirmed = new ArrayList<>();
+        for (Sent email : sent) {
+            if (awaitConfirm(email.confirmed(), deadline)) {
+                confirmed.addAll(email.taskIds());
+            }
+        }
+        if (!confirmed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> taskRemindersRepository.recordSent(confirmed, LocalDateTime.now()));
+        }
+        return confirmed.size();
+    }
+
+    private static boolean awaitConfirm(CompletableFuture<Void> confirmed, long deadline) {
+        try {
+            confirmed.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Reminder email not confirmed, it will be retried on the next run: {}", e.toString());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Sent(List<UUID> taskIds, CompletableFuture<Void> confirmed) {}
+
+    private record DigestChunk(List<Sent> sent, boolean full, UUID lastUserId) {}
+}
@@ -1,12 +1,19 @@
 package com.example.apitask.services;
 
+import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.dtos.tasks.TaskRow;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
+import com.example.apitask.dtos.tasks.TasksWindowDTO;
+import com.example.apitask.enums.TaskListFilter;
 import com.example.apitask.exceptions.Authorization;
+import com.example.apitask.exceptions.InvalidPageSizeException;
 import com.example.apitask.exceptions.ResourceNotFoundException;
+import com.example.apitask.helpers.AfterCommit;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.mappers.CategoriesMapper;
-import com.example.apitask.mappers.PageUtils;
 import com.example.apitask.mappers.TasksMapper;
 import com.example.apitask.models.Categories;
 import com.example.apitask.models.Tasks;
@@ -16,19 +23,28 @@ import com.example.apitask.repositories.TasksRepository;
 import com.example.apitask.repositories.UsersRepository;
 import jakarta.validation.Valid;
 import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cglib.core.Local;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.invoke.CallSite;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -41,25 +57,53 @@ public class TaskService {
     private final CategoriesRepository categoriesRepository;
     private final UsersRepository usersRepository;
     private final CategoriesMapper categoriesMapper;
+    private final TaskCountCache taskCountCache;
+    private final CategoryCatalog categoryCatalog;
+    private final LeaderboardService leaderboardService;
+    private final int maxWindowSize;
+    private final Clock clock;
 
-    public TaskService(TasksRepository tasksRepository, TasksMapper tasksMapper, TokenService tokenService, CategoriesRepository categoriesRepository, UsersRepository usersRepository, CategoriesMapper categoriesMapper) {
+    public TaskService(TasksRepository tasksRepository, TasksMapper tasksMapper, TokenService tokenService, CategoriesRepository categoriesRepository, UsersRepository usersRepository, CategoriesMapper categoriesMapper,
+                       TaskCountCache taskCountCache, CategoryCatalog categoryCatalog, LeaderboardService leaderboardService,
+                       @Value("${tasks.scroll.max-size:100}") int maxWindowSize, Clock clock) {
         this.tasksRepository = tasksRepository;
         this.tasksMapper = tasksMapper;
         this.tokenService = tokenService;
         this.categoriesRepository = categoriesRepository;
         this.usersRepository = usersRepository;
         this.categoriesMapper = categoriesMapper;
+        this.taskCountCache = taskCountCache;
+        this.categoryCatalog = categoryCatalog;
+        this.leaderboardService = leaderboardService;
+        this.maxWindowSize = maxWindowSize;
+        this.clock = clock;
     }
 
     public TasksResponseDTO createTask(@Valid TasksRequestDTO tasksRequestDTO) {
         Users currentUser = tokenService.getCurrentUser();
+        CategoryCatalog.Snapshot catalog = categoryCatalog.snapshot();
         Set<Categories> categories = tasksRequestDTO.categoryIds().stream()
-                .map(id -> categoriesRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("category not found"))).collect(Collectors.toSet());
+                .map(id -> {
+                    // The snapshot can lag behind categories created on another instance.
+                    if (!catalog.contains(id) && !categoriesRepository.existsById(id)) {
+                        throw new ResourceNotFoundException("category not found");
+                    }
+                    return categoriesRepository.getReferenceById(id);
+                }).collect(Collectors.toSet());
 
         Tasks tasks = tasksMapper.toEntity(tasksRequestDTO);
-        tasks.setUsers(currentUser);
+        tasks.setUsers(usersRepository.getReferenceById(currentUser.getId()));
         tasks.setCategories(categories);
-        tasksRepository.save(tasks);
+        try {
+            tasksRepository.save(tasks);
+        } catch (DataIntegrityViolationException e) {
+            // A category that was in the snapshot may have been deleted since; other violations pass through.
+            if (!tasksRequestDTO.categoryIds().stream().allMatch(categoriesRepository::existsById)) {
+                throw new ResourceNotFoundException("category not found");
+            }
+            throw e;
+        }
+        taskCountCache.invalidateUser(currentUser.getId());
         return tasksMapper.toDTO(tasks);
     }
 
@@ -78,27 +122,31 @@ public class TaskService {
         return tasksMapper.toDTO(tasks);
     }
 
+    /**
+     * Completing a task and extending the streak are two conditional UPDATEs in one transaction: the
+     * task row only changes while it is pending and the point is only added while the streak date is
+     * not today, so repeated or concurrent toggles never count twice. The entity is read once, after
+     * the writes, to build the response and to tell a missing task from someone else's. The leaderboard
+     * and the cached counts only change once the writes are committed.
+     */
+    @Transactional
     public TasksResponseDTO tasksCompleted(UUID id) {
         Users users = tokenService.getCurrentUser();
-        Tasks tasks = tasksRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("task not found"));
-
-        if(!tasks.getUsers().getId().equals(users.getId())) {
-            throw new Authorization("You do not have permission to modify this task.");
-        }
+        LocalDate today = LocalDate.now(clock);
         boolean firstTaskToday = false;
-        LocalDate today = LocalDate.now();
-        if(!tasks.getCompleted()) {
-            if (users.getStreakData() == null || !users.getStreakData().isEqual(today)) {
-                users.setPointers(users.getPointers() + 1);
-                users.setStreakData(today);
-                usersRepository.save(users);
-                firstTaskToday = true;
+        if (tasksRepository.markCompleted(id, users.getId(), today) == 1) {
+            firstTaskToday = usersRepository.awardDailyPoint(users.getId(), today, today.minusDays(1)) == 1;
+            if (firstTaskToday) {
+                usersRepository.findStreakByUsersId(users.getId())
+                        .ifPresent(streak -> AfterCommit.run(() -> leaderboardService.update(users.getId(), users.getEmail(), streak.pointers())));
             }
+            AfterCommit.run(() -> taskCountCache.invalidateUser(users.getId()));
         }
 
-        tasks.setCompleted(true);
-        tasks.setDateConclusion(today);
-        tasksRepository.save(tasks);
+        Tasks tasks = tasksRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("task not found"));
+        if(!tasks.getUsers().getId().equals(users.getId())) {
+            throw new Authorization("You do not have permission to modify this task.");
+        }
         return mapWithFirstTaskFlag(tasks, firstTaskToday);
     }
 
@@ -111,36 +159,106 @@ public class TaskService {
         }
 
         tasksRepository.deleteById(id);
+        taskCountCache.invalidateUser(users.getId());
     }
 
     @Transactional(readOnly = true)
     public Page<TasksResponseDTO> hasTasksToday(int page, int size) {
-        Users users = tokenService.getCurrentUser();
-        LocalDate today = LocalDate.now();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("dateExpiration").descending());
-        Page<Tasks> tasks = tasksRepository.findTasksDueUpToDate(users.getId(), today, pageable);
-        return PageUtils.mapPage(tasks, tasksMapper::toDTO);
+        return listTasks(TaskListFilter.DUE, page, size);
     }
 
+    @Transactional(readOnly = true)
     public Page<TasksResponseDTO> existsTasksPending(int page, int size) {
-        Users users = tokenService.getCurrentUser();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("dateExpiration").descending());
-        Page<Tasks> tasks = tasksRepository.findByUsersIdAndCompletedFalse(users.getId(), pageable);
-        return PageUtils.mapPage(tasks, tasksMapper::toDTO);
+        return listTasks(TaskListFilter.PENDING, page, size);
     }
 
+    @Transactional(readOnly = true)
     public Page<TasksResponseDTO> existsTasksCompleted(int page, int size) {
+        return listTasks(TaskListFilter.COMPLETED, page, size);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<TasksResponseDTO> getTasksByUser(int page, int size) {
+        return listTasks(TaskListFilter.ALL, page, size);
+    }
+
+    /**
+     * Same listings as the page endpoints without the count query: the slice only tells whether a next
+     * page exists. With {@code approximateTotal} the total comes from {@link TaskCountCache} instead.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TasksResponseDTO> listTasksWithoutTotal(TaskListFilter filter, int page, int size, boolean approximateTotal) {
         Users users = tokenService.getCurrentUser();
+        LocalDate today = LocalDate.now(clock);
         Pageable pageable = PageRequest.of(page, size, Sort.by("dateExpiration").descending());
-        Page<Tasks> tasks = tasksRepository.findByUsersIdAndCompletedTrue(users.getId(), pageable);
-        return PageUtils.mapPage(tasks, tasksMapper::toDTO);
+        List<TaskRow> rows = tasksRepository.findRows(users.getId(), filter, today, pageable.getOffset(), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<TasksResponseDTO> content = toResponses(hasNext ? rows.subList(0, size) : rows);
+        if (!approximateTotal) {
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+        long total = taskCountCache.get(users.getId(), filter, () -> countTasks(users.getId(), filter, today));
+        return new PageImpl<>(content, pageable, total);
     }
 
-    public Page<TasksResponseDTO> getTasksByUser(int page, int size) {
+    /**
+     * Page listings read rows instead of managed entities, so nothing is hydrated, snapshotted or
+     * proxied; the categories of the whole page come back from one batched lookup.
+     */
+    private Page<TasksResponseDTO> listTasks(TaskListFilter filter, int page, int size) {
         Users users = tokenService.getCurrentUser();
+        LocalDate today = LocalDate.now(clock);
         Pageable pageable = PageRequest.of(page, size, Sort.by("dateExpiration").descending());
-        Page<Tasks> tasks =  tasksRepository.findAllByUsersId(users.getId(), pageable);
-        return PageUtils.mapPage(tasks, tasksMapper::toDTO);
+        List<TaskRow> rows = tasksRepository.findRows(users.getId(), filter, today, pageable.getOffset(), size);
+        return PageableExecutionUtils.getPage(toResponses(rows), pageable, () -> countTasks(users.getId(), filter, today));
+    }
+
+    private List<TasksResponseDTO> toResponses(List<TaskRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Set<CategoriesResponseDTO>> categories = new HashMap<>();
+        List<UUID> ids = rows.stream().map(TaskRow::id).toList();
+        for (TaskCategoryRow row : tasksRepository.findCategoryRows(ids)) {
+            categories.computeIfAbsent(row.taskId(), id -> new HashSet<>())
+                    .add(new CategoriesResponseDTO(row.categoryId(), row.name()));
+        }
+        return rows.stream()
+                .map(row -> tasksMapper.toDTO(row, categories.getOrDefault(row.id(), Set.of())))
+                .toList();
+    }
+
+    private long countTasks(UUID userId, TaskListFilter filter, LocalDate today) {
+        return switch (filter) {
+            case DUE -> tasksRepository.countTasksDueUpToDate(userId, today);
+            case PENDING -> tasksRepository.countByUsersIdAndCompletedFalse(userId);
+            case COMPLETED -> tasksRepository.countByUsersIdAndCompletedTrue(userId);
+            case ALL -> tasksRepository.countByUsersId(userId);
+        };
+    }
+
+    /**
+     * Keyset alternative to the page listings: each window seeks past the cursor of the previous one
+     * instead of skipping rows, so every window costs the same and no count query runs.
+     */
+    @Transactional(readOnly = true)
+    public TasksWindowDTO scrollTasks(TaskListFilter filter, String cursor, int size) {
+        if (size < 1 || size > maxWindowSize) {
+            throw new InvalidPageSizeException("size must be between 1 and " + maxWindowSize);
+        }
+        Users users = tokenService.getCurrentUser();
+        TaskCursor after = cursor == null || cursor.isBlank() ? null : TaskCursor.decode(cursor);
+        List<TaskRow> rows = tasksRepository.findRowsAfter(users.getId(), filter, LocalDate.now(clock), after, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<TaskRow> window = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            TaskRow last = window.getLast();
+            next = new TaskCursor(last.dateExpiration(), last.id()).encode();
+        }
+        return new TasksWindowDTO(toResponses(window), next, hasNext);
     }
 
     public TasksResponseDTO mapWithFirstTaskFlag(Tasks task, boolean firstTaskToday) {
@@ -159,8 +277,10 @@ public class TaskService {
 
     public int deleteCompletedTasksBefore() {
         Users user = tokenService.getCurrentUser();
-        LocalDate limitDate = LocalDate.now().minusDays(30);
-        return tasksRepository.deleteOldCompleted(user.getId(), limitDate);
+        LocalDate limitDate = LocalDate.now(clock).minusDays(30);
+        int deleted = tasksRepository.deleteOldCompleted(user.getId(), limitDate);
+        taskCountCache.invalidateUser(user.getId());
+        return deleted;
     }
 
 
@@ -7,6 +7,7 @@ import com.example.apitask.enums.UsersRole;
 import com.example.apitask.exceptions.EmailAlreadyExistsException;
 import com.example.apitask.exceptions.ResourceNotFoundException;
 import com.example.apitask.helpers.HashPassword;
+import com.example.apitask.infra.security.PrincipalCache;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.mappers.UsersMapper;
 import com.example.apitask.models.Users;
@@ -17,9 +18,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,16 +35,29 @@ public class UserService implements UserDetailsService {
     private final HashPassword hashPassword;
     private final TokenService tokenService;
     private final EmailPublisher emailPublisher;
+    private final PrincipalCache principalCache;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
 
-    public UserService(UsersRepository usersRepository, UsersMapper usersMapper, HashPassword hashPassword, TokenService tokenService, EmailPublisher emailPublisher) {
+    public UserService(UsersRepository usersRepository, UsersMapper usersMapper, HashPassword hashPassword, TokenService tokenService, EmailPublisher emailPublisher, PrincipalCache principalCache,
+                       LeaderboardService leaderboardService, PlatformTransactionManager transactionManager, Clock clock) {
         this.usersRepository = usersRepository;
         this.usersMapper = usersMapper;
         this.hashPassword = hashPassword;
         this.tokenService = tokenService;
         this.emailPublisher = emailPublisher;
+        this.principalCache = principalCache;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
     }
 
 
+    /**
+     * Hashes the password before opening the transaction, then writes the user and its welcome email
+     * to the outbox in one commit; the broker is only contacted later by the outbox relay.
+     */
     public UsersResponseDTO createUsers(@Valid UsersRequestDTO usersRequestDTO) {
         Users users = usersMapper.toEntity(usersRequestDTO);
         Optional<UserDetails> userDetails = usersRepository.findByEmail(users.getEmail());
@@ -50,8 +66,10 @@ public class UserService implements UserDetailsService {
         }
         users.setPassword(hashPassword.hashEncode(usersRequestDTO.password()));
         users.setRole(UsersRole.USER);
-        usersRepository.save(users);
-        emailPublisher.sendWelcomeEmail(users);
+        transactionTemplate.executeWithoutResult(status -> {
+            usersRepository.save(users);
+            emailPublisher.sendWelcomeEmail(users);
+        });
         return usersMapper.toDTO(users);
     }
 
@@ -73,22 +91,18 @@ public class UserService implements UserDetailsService {
 
     public void deleteUserById(UUID id) {
         usersRepository.deleteById(id);
+        principalCache.invalidateUser(id);
+        leaderboardService.remove(id);
     }
 
+    /**
+     * Pure read: the streak is decayed from the stored date at read time, so polling this endpoint
+     * never writes and costs one primary-key lookup.
+     */
     public Integer getSequenceByUser() {
         Users user = tokenService.getCurrentUser();
-        LocalDate today = LocalDate.now();
-        Users users = usersRepository.findById(user.getId()).orElseThrow(() -> new ResourceNotFoundException("Users not fount"));
-        LocalDate streakDate = users.getStreakData();
-        if(streakDate == null) {
-            users.setPointers(0);
-        } else {
-            long daysSinceLast = ChronoUnit.DAYS.between(streakDate, today);
-            if(daysSinceLast >= 2) {
-                users.setPointers(0);
-            }
-        }
-        usersRepository.save(users);
-        return usersRepository.findPointersByUsersId(user.getId());
+        return usersRepository.findStreakByUsersId(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Users not fount"))
+                .pointersOn(LocalDate.now(clock));
     }
 }
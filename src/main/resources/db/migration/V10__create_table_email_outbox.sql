@@ -0,0 +1,12 @@
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    routing_key VARCHAR(255) NOT NULL,
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    leased_until TIMESTAMP WITHOUT TIME ZONE,
+    dead_lettered_at TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX idx_email_outbox_created_at ON email_outbox (created_at) WHERE dead_lettered_at IS NULL;
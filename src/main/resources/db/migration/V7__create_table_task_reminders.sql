@@ -0,0 +1,9 @@
+CREATE TABLE task_reminders (
+    tasks_id UUID NOT NULL,
+    due_date DATE NOT NULL,
+    sent_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (tasks_id, due_date),
+    CONSTRAINT fk_task_reminders_tasks FOREIGN KEY (tasks_id) REFERENCES tasks (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_tasks_pending_due_date ON tasks (date_expiration, id) WHERE completed = FALSE;
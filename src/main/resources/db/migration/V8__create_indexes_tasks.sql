@@ -0,0 +1,7 @@
+CREATE INDEX idx_tasks_users_due_date ON tasks (users_id, date_expiration DESC, id DESC);
+
+CREATE INDEX idx_tasks_users_pending_due_date ON tasks (users_id, date_expiration DESC, id DESC) WHERE completed = FALSE;
+
+CREATE INDEX idx_tasks_users_completed_conclusion ON tasks (users_id, date_conclusion) WHERE completed = TRUE;
+
+CREATE INDEX idx_tasks_category_category_id ON tasks_category (category_id);
@@ -0,0 +1 @@
+CREATE INDEX idx_users_pointers ON users (pointers DESC, id) WHERE pointers > 0;
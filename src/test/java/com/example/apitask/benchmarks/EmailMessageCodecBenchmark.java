@@ -0,0 +1,93 @@
+package com.example.apitask.benchmarks;
+
+import com.example.apitask.email.EmailMessageCodec;
+import com.example.apitask.email.EmailMessageForTask;
+import com.example.apitask.email.EmailMessageForTaskDigest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encode and decode cost of a task reminder and of a ten-task digest with EmailMessageCodec, with
+ * the Jackson2JsonMessageConverter it replaces, and with Java serialization (SimpleMessageConverter,
+ * the RabbitTemplate default). Bytes per message are printed before the run. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.apitask.benchmarks.EmailMessageCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailMessageCodecBenchmark {
+
+    @Param({"codec", "jackson", "java"})
+    private String converter;
+
+    @Param({"task", "digest"})
+    private String payload;
+
+    private MessageConverter messageConverter;
+    private Object message;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        messageConverter = converter(converter);
+        message = payload(payload);
+        encoded = messageConverter.toMessage(message, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encode() {
+        return messageConverter.toMessage(message, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return messageConverter.fromMessage(encoded);
+    }
+
+    private static MessageConverter converter(String name) {
+        return switch (name) {
+            case "codec" -> new EmailMessageCodec();
+            case "jackson" -> new Jackson2JsonMessageConverter();
+            default -> {
+                SimpleMessageConverter simple = new SimpleMessageConverter();
+                simple.setAllowedListPatterns(List.of("com.example.apitask.email.*", "java.util.*"));
+                yield simple;
+            }
+        };
+    }
+
+    private static Object payload(String name) {
+        if (name.equals("task")) {
+            return new EmailMessageForTask("user1@gmail.com", "user1", "Finish the quarterly report", "2025-09-20");
+        }
+        return new EmailMessageForTaskDigest("user1@gmail.com", "user1", IntStream.range(0, 10)
+                .mapToObj(i -> new EmailMessageForTaskDigest.TaskItem("Task number " + i, "2025-09-2" + i % 10))
+                .toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String payload : List.of("task", "digest")) {
+            for (String converter : List.of("codec", "jackson", "java")) {
+                int bytes = converter(converter).toMessage(payload(payload), new MessageProperties()).getBody().length;
+                System.out.printf("%-7s %-8s %5d bytes/message%n", payload, converter, bytes);
+            }
+        }
+        new Runner(new OptionsBuilder()
+                .include(EmailMessageCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
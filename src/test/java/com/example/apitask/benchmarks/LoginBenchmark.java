@@ -0,0 +1,105 @@
+package com.example.apitask.benchmarks;
+
+import com.example.apitask.dtos.users.UsersLoginDTO;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.BoundedPasswordEncoder;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The /auth/login path without HTTP: authenticate against BCrypt, sign the token and build the
+ * response, once re-reading the user after authenticating (the old controller) and once reusing the
+ * authenticated principal. The user lookup parks for {@code lookupMicros} to stand in for a database
+ * round-trip. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.apitask.benchmarks.LoginBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String SECRET = "h83rfq9h87u04f39hu0834f5hu904f3";
+    private static final String PASSWORD = "password1";
+
+    @Param({"4", "10"})
+    private int bcryptStrength;
+
+    @Param({"0", "300"})
+    private long lookupMicros;
+
+    private BoundedPasswordEncoder passwordEncoder;
+    private UserDetailsService userDetailsService;
+    private ProviderManager authenticationManager;
+    private TokenService tokenService;
+    private Users user;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), 1, 64, new SimpleMeterRegistry());
+        user = new UserFactory().createUser(1);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        Map<String, Users> users = Map.of(user.getEmail(), user);
+
+        userDetailsService = email -> {
+            if (lookupMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(lookupMicros));
+            }
+            Users found = users.get(email);
+            if (found == null) {
+                throw new UsernameNotFoundException("User not found.");
+            }
+            return found;
+        };
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        authenticationManager = new ProviderManager(provider);
+        tokenService = new TokenService(SECRET, "default", Map.of(), 10_000, 7200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordEncoder.close();
+    }
+
+    @Benchmark
+    public UsersLoginDTO lookupTwice() {
+        Authentication auth = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getEmail(), PASSWORD));
+        String token = tokenService.generateToken((Users) auth.getPrincipal());
+        UserDetails again = userDetailsService.loadUserByUsername(user.getEmail());
+        return new UsersLoginDTO(token, user.getEmail().split("@")[0], ((Users) again).getStreakData());
+    }
+
+    @Benchmark
+    public UsersLoginDTO reusePrincipal() {
+        Authentication auth = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(user.getEmail(), PASSWORD));
+        Users principal = (Users) auth.getPrincipal();
+        String token = tokenService.generateToken(principal);
+        return new UsersLoginDTO(token, principal.getEmail().split("@")[0], principal.getStreakData());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.apitask.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.infra.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT verification cost: building the HMAC algorithm and verifier on every call (the old
+ * TokenService), the prebuilt key ring, and the verified-token cache. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.apitask.benchmarks.TokenServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET = "h83rfq9h87u04f39hu0834f5hu904f3";
+
+    private TokenService tokenService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService(SECRET, "default", Map.of(), 10_000, 7200);
+        token = tokenService.generateToken(new UserFactory().createUser(1));
+    }
+
+    @Benchmark
+    public DecodedJWT verifierPerRequest() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.require(algorithm)
+                .withIssuer("apitask")
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT prebuiltVerifier() {
+        return tokenService.decodeToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifiedTokenCache() {
+        return tokenService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -5,6 +5,7 @@ import com.example.apitask.dtos.categories.CategorieRequestDTO;
 import com.example.apitask.dtos.categories.CategoriesResponseDTO;
 import com.example.apitask.infra.security.SecurityFilter;
 import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.services.CategoryCatalog;
 import com.example.apitask.services.CategoryService;
 import com.example.apitask.factories.CategoryFactory;
 
@@ -79,18 +80,34 @@ public class CategoryControllerTest {
         var responseDTO2 = categoryFactory.createCategoryResponse(2);
         List<CategoriesResponseDTO> categories = List.of(responseDTO1, responseDTO2);
 
-        when(categoryService.findAllCategory()).thenReturn(categories);
+        CategoryCatalog.Snapshot catalog = CategoryCatalog.Snapshot.of(1, categories, objectMapper);
+
+        when(categoryService.catalog()).thenReturn(catalog);
 
         mockMvc.perform(get("/categories")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalog.etag()))
                 .andExpect(jsonPath("$[0].id").value(responseDTO1.id().toString()))
                 .andExpect(jsonPath("$[0].name").value(responseDTO1.name()))
                 .andExpect(jsonPath("$[1].id").value(responseDTO2.id().toString()))
                 .andExpect(jsonPath("$[1].name").value(responseDTO2.name()));
 
-        verify(categoryService, times(1)).findAllCategory();
+        verify(categoryService, times(1)).catalog();
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        CategoryCatalog.Snapshot catalog = CategoryCatalog.Snapshot.of(1, List.of(categoryFactory.createCategoryResponse(1)), objectMapper);
+
+        when(categoryService.catalog()).thenReturn(catalog);
+
+        mockMvc.perform(get("/categories")
+                        .header("If-None-Match", catalog.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", catalog.etag()))
+                .andExpect(content().string(""));
     }
 
     @Test
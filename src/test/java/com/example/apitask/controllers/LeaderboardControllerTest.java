@@ -0,0 +1,69 @@
+package com.example.apitask.controllers;
+
+import com.example.apitask.dtos.leaderboard.LeaderboardEntryDTO;
+import com.example.apitask.infra.security.SecurityFilter;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.services.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LeaderboardController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class LeaderboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LeaderboardService leaderboardService;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private SecurityFilter securityFilter;
+
+    @Test
+    void shouldReturnTopEntries() throws Exception {
+        when(leaderboardService.top(2)).thenReturn(List.of(
+                new LeaderboardEntryDTO(1, UUID.randomUUID(), "ana", 9),
+                new LeaderboardEntryDTO(2, UUID.randomUUID(), "bia", 7)));
+
+        mockMvc.perform(get("/leaderboard").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].username").value("ana"))
+                .andExpect(jsonPath("$[1].rank").value(2));
+    }
+
+    @Test
+    void shouldReturnRankOfUser() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(leaderboardService.rankOf(userId)).thenReturn(Optional.of(new LeaderboardEntryDTO(6, userId, "eva", 2)));
+
+        mockMvc.perform(get("/leaderboard/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(6));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownUser() throws Exception {
+        when(leaderboardService.rankOf(any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/leaderboard/{userId}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+}
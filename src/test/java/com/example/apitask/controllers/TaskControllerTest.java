@@ -1,11 +1,22 @@
 package com.example.apitask.controllers;
 
+import com.example.apitask.dtos.tasks.TaskBulkItemResultDTO;
+import com.example.apitask.dtos.tasks.TaskImportRejectDTO;
+import com.example.apitask.dtos.tasks.TaskImportReportDTO;
+import com.example.apitask.dtos.tasks.TasksBulkResponseDTO;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
+import com.example.apitask.dtos.tasks.TasksWindowDTO;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.enums.TaskListFilter;
 import com.example.apitask.factories.CategoryFactory;
 import com.example.apitask.factories.TaskFactory;
+import com.example.apitask.infra.security.PrincipalCache;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.repositories.UsersRepository;
+import com.example.apitask.services.TaskBulkService;
+import com.example.apitask.services.TaskExportService;
+import com.example.apitask.services.TaskImportService;
 import com.example.apitask.services.TaskService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,10 +28,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.IntStream;
@@ -42,6 +59,9 @@ public class TaskControllerTest {
     @MockitoBean
     private UsersRepository usersRepository;
 
+    @MockitoBean
+    private PrincipalCache principalCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,6 +71,15 @@ public class TaskControllerTest {
     @MockitoBean
     private TokenService tokenService;
 
+    @MockitoBean
+    private TaskBulkService taskBulkService;
+
+    @MockitoBean
+    private TaskExportService taskExportService;
+
+    @MockitoBean
+    private TaskImportService taskImportService;
+
     private final TaskFactory taskFactory = new TaskFactory();
 
     @BeforeEach
@@ -75,6 +104,28 @@ public class TaskControllerTest {
         verify(taskService, times(1)).createTask(any(TasksRequestDTO.class));
     }
 
+    @Test
+    void shouldCreateTasksInBulk() throws Exception {
+        List<TasksRequestDTO> requests = List.of(taskFactory.createTaskRequest(1), taskFactory.createTaskRequest(2));
+        UUID id = UUID.randomUUID();
+        TasksBulkResponseDTO response = new TasksBulkResponseDTO(1, 1, List.of(
+                new TaskBulkItemResultDTO(0, id, null),
+                new TaskBulkItemResultDTO(1, null, "category not found")));
+
+        when(taskBulkService.createTasks(any())).thenReturn(response);
+
+        mockMvc.perform(post("/task/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(id.toString()))
+                .andExpect(jsonPath("$.results[1].error").value("category not found"));
+
+        verify(taskBulkService, times(1)).createTasks(any());
+    }
+
     @Test
     void shouldReturnAllTasksSuccessfully() throws Exception {
         List<TasksResponseDTO> tasksList = List.of(
@@ -231,6 +282,97 @@ public class TaskControllerTest {
         verify(taskService, times(1)).getTasksByUser(0, 10);
     }
 
+    @Test
+    void shouldReturnSliceWhenTotalIsSuppressed() throws Exception {
+        List<TasksResponseDTO> tasksList = IntStream.range(0, 2)
+                .mapToObj(taskFactory::createTaskResponse)
+                .toList();
+
+        when(taskService.listTasksWithoutTotal(TaskListFilter.PENDING, 0, 2, false))
+                .thenReturn(new SliceImpl<>(tasksList, PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/task/hasTaskForPending")
+                        .param("page", "0")
+                        .param("size", "2")
+                        .param("withTotal", "false")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(taskService, never()).existsTasksPending(anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldScrollTasksWithCursor() throws Exception {
+        List<TasksResponseDTO> tasksList = IntStream.range(0, 2)
+                .mapToObj(taskFactory::createTaskResponse)
+                .toList();
+
+        when(taskService.scrollTasks(TaskListFilter.PENDING, "abc", 2)).thenReturn(new TasksWindowDTO(tasksList, "def", true));
+
+        mockMvc.perform(get("/task/scroll")
+                        .param("filter", "PENDING")
+                        .param("cursor", "abc")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.next").value("def"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        verify(taskService, times(1)).scrollTasks(TaskListFilter.PENDING, "abc", 2);
+    }
+
+    @Test
+    void shouldStreamTaskExport() throws Exception {
+        StreamingResponseBody body = output -> output.write("{\"name\":\"task\"}\n".getBytes(StandardCharsets.UTF_8));
+        when(taskExportService.export(TaskExportFormat.NDJSON, false, LocalDate.of(2026, 1, 1), null, false)).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/task/export")
+                        .param("completed", "false")
+                        .param("from", "2026-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.ndjson\""))
+                .andExpect(content().string("{\"name\":\"task\"}\n"));
+    }
+
+    @Test
+    void shouldImportTasksFromUploadedBody() throws Exception {
+        TaskImportReportDTO report = new TaskImportReportDTO(true, 2, 1, 1, 2, 10.0,
+                List.of(new TaskImportRejectDTO(2, "dateExpiration is required")), null);
+        when(taskImportService.importTasks(any(), eq(TaskExportFormat.CSV), eq(0L), eq(100))).thenReturn(report);
+
+        mockMvc.perform(post("/task/import")
+                        .param("format", "CSV")
+                        .param("batchSize", "100")
+                        .contentType("text/csv")
+                        .content("name,description,dateExpiration\nTask,Desc,2026-01-01\nTask,Desc,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.checkpoint").value(2))
+                .andExpect(jsonPath("$.rejects[0].error").value("dateExpiration is required"));
+    }
+
+    @Test
+    void shouldReturnStoppedImportReportWithItsCheckpoint() throws Exception {
+        TaskImportReportDTO report = new TaskImportReportDTO(false, 3, 2, 0, 2, 10.0, List.of(), "import stopped after row 2: boom");
+        when(taskImportService.importTasks(any(), eq(TaskExportFormat.NDJSON), eq(0L), isNull())).thenReturn(report);
+
+        mockMvc.perform(post("/task/import")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(false))
+                .andExpect(jsonPath("$.checkpoint").value(2));
+    }
+
     @Test
     void shouldClearOldCompletedTasks() throws Exception {
         when(taskService.deleteCompletedTasksBefore()).thenReturn(3);
@@ -3,6 +3,7 @@ package com.example.apitask.controllers;
 import com.example.apitask.dtos.users.UsersRequestDTO;
 import com.example.apitask.dtos.users.UsersResponseDTO;
 import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.PrincipalCache;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.models.Users;
 import com.example.apitask.repositories.UsersRepository;
@@ -61,6 +62,9 @@ public class UserControllerTest {
     @MockitoBean
     private UsersRepository usersRepository;
 
+    @MockitoBean
+    private PrincipalCache principalCache;
+
     private final UserFactory usersFactory = new UserFactory();
 
     @BeforeEach
@@ -118,9 +122,6 @@ public class UserControllerTest {
         String fakeToken = "fake-jwt-token";
         when(tokenService.generateToken(mockUser)).thenReturn(fakeToken);
 
-        // Mock do repositório
-        when(usersRepository.findByEmail(requestDTO.email())).thenReturn(Optional.of(mockUser));
-
         // Executa a requisição
         mockMvc.perform(post("/auth/login")
                         .with(csrf())
@@ -134,7 +135,7 @@ public class UserControllerTest {
         // Verifica interações
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(tokenService, times(1)).generateToken(mockUser);
-        verify(usersRepository, times(1)).findByEmail(requestDTO.email());
+        verifyNoInteractions(usersRepository);
     }
 
     @Test
@@ -0,0 +1,140 @@
+package com.example.apitask.email;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EmailBatchPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry registry;
+    private final List<Object> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+        registry = new SimpleMeterRegistry();
+    }
+
+    private EmailBatchPublisher publisher(int batchSize, int maxAttempts) {
+        return new EmailBatchPublisher(rabbitTemplate, batchSize, 60_000, 1_000, 100, maxAttempts, false, registry);
+    }
+
+    private void confirmWith(IntPredicate ackForCall) {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer((InvocationOnMock invocation) -> {
+            int call = calls.getAndIncrement();
+            sent.add(invocation.getArgument(2));
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ackForCall.test(call), null));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(""), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void shouldPublishQueuedMessagesInBatchesOnOneChannel() {
+        confirmWith(call -> true);
+        EmailBatchPublisher publisher = publisher(2, 3);
+
+        publisher.enqueue("email-for-task-queue", "m1");
+        publisher.enqueue("email-for-task-queue", "m2");
+        publisher.enqueue("email-for-task-queue", "m3");
+        publisher.flushAll();
+
+        assertThat(sent).containsExactly("m1", "m2", "m3");
+        assertThat(publisher.pending()).isZero();
+        verify(rabbitTemplate, times(2)).invoke(any());
+        assertThat(registry.get("email.batch.size").summary().count()).isEqualTo(2);
+        assertThat(registry.get("email.batch.confirm.latency").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRetryNackedMessage() {
+        confirmWith(call -> call != 0);
+        EmailBatchPublisher publisher = publisher(10, 3);
+
+        publisher.enqueue("email-for-task-queue", "m1");
+        publisher.enqueue("email-for-task-queue", "m2");
+        publisher.flushAll();
+
+        assertThat(sent).containsExactly("m1", "m2", "m1");
+        assertThat(registry.get("email.batch.retries").counter().count()).isEqualTo(1);
+        assertThat(registry.get("email.batch.failures").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldDropMessageAfterMaxAttempts() {
+        confirmWith(call -> false);
+        EmailBatchPublisher publisher = publisher(10, 2);
+
+        publisher.enqueue("email-for-task-queue", "m1");
+        publisher.flushAll();
+        publisher.flushAll();
+
+        assertThat(sent).containsExactly("m1", "m1");
+        assertThat(publisher.pending()).isZero();
+        assertThat(registry.get("email.batch.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCompleteFutureOnConfirmAndFailItWhenDropped() {
+        confirmWith(call -> call == 0);
+        EmailBatchPublisher publisher = publisher(10, 1);
+
+        CompletableFuture<Void> acked = publisher.enqueue("email-for-task-queue", "m1");
+        CompletableFuture<Void> nacked = publisher.enqueue("email-for-task-queue", "m2");
+        publisher.flushAll();
+
+        assertThat(acked).isCompleted();
+        assertThat(nacked).isCompletedExceptionally();
+    }
+
+    @Test
+    void shouldFailRightAwayInsteadOfBlockingWhenQueueIsFull() {
+        EmailBatchPublisher publisher = new EmailBatchPublisher(rabbitTemplate, 10, 60_000, 1, 100, 3, false, registry);
+
+        publisher.enqueue("email-for-task-queue", "m1");
+        CompletableFuture<Void> rejected = publisher.enqueue("email-for-task-queue", "m2");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(publisher.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWaitForConfirmsOnceForTheWholeBatch() {
+        EmailBatchPublisher publisher = publisher(10, 1);
+        for (int i = 0; i < 5; i++) {
+            publisher.enqueue("email-for-task-queue", "m" + i);
+        }
+
+        long started = System.nanoTime();
+        int confirmed = publisher.flush();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(confirmed).isZero();
+        assertThat(elapsedMillis).isLessThan(5 * 100);
+        assertThat(registry.get("email.batch.failures").counter().count()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.apitask.email;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmailMessageCodecTest {
+
+    private final EmailMessageCodec codec = new EmailMessageCodec();
+    private final Jackson2JsonMessageConverter jackson = new Jackson2JsonMessageConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static EmailMessageForTaskDigest digest() {
+        return new EmailMessageForTaskDigest("user1@gmail.com", "user1", List.of(
+                new EmailMessageForTaskDigest.TaskItem("Pay \"rent\"", "2025-09-20"),
+                new EmailMessageForTaskDigest.TaskItem("Café run", "2025-09-21")));
+    }
+
+    @Test
+    void shouldWriteTheSameJsonAndHeadersAsJackson() throws Exception {
+        for (Object mail : List.of(
+                new EmailMessage("user1@gmail.com", "Welcome to apitask", "Hello, user1"),
+                new EmailMessageForTask("user1@gmail.com", "user1", "Task", "2025-09-20"),
+                digest())) {
+            Message ours = codec.toMessage(mail, new MessageProperties());
+            Message theirs = jackson.toMessage(mail, new MessageProperties());
+
+            assertThat(objectMapper.readTree(ours.getBody())).isEqualTo(objectMapper.readTree(theirs.getBody()));
+            assertThat(ours.getMessageProperties().getContentType()).isEqualTo(theirs.getMessageProperties().getContentType());
+            assertThat((String) ours.getMessageProperties().getHeader("__TypeId__"))
+                    .isEqualTo(theirs.getMessageProperties().getHeader("__TypeId__"));
+            assertThat((Integer) ours.getMessageProperties().getHeader(EmailMessageCodec.SCHEMA_HEADER)).isEqualTo(EmailMessageCodec.SCHEMA_VERSION);
+        }
+    }
+
+    @Test
+    void shouldReadBackWhatJacksonWrote() {
+        Message message = jackson.toMessage(digest(), new MessageProperties());
+
+        EmailMessageForTaskDigest decoded = (EmailMessageForTaskDigest) codec.fromMessage(message);
+
+        assertThat(decoded.getTo()).isEqualTo("user1@gmail.com");
+        assertThat(decoded.getTasks()).extracting(EmailMessageForTaskDigest.TaskItem::getTaskName)
+                .containsExactly("Pay \"rent\"", "Café run");
+    }
+
+    @Test
+    void shouldRoundTripNullFieldsAndIgnoreUnknownOnes() {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader("__TypeId__", EmailMessageForTask.class.getName());
+        Message message = new Message("{\"to\":\"a@b.c\",\"extra\":{\"nested\":[1,2]},\"taskName\":null}".getBytes(), properties);
+
+        EmailMessageForTask decoded = (EmailMessageForTask) codec.fromMessage(message);
+
+        assertThat(decoded.getTo()).isEqualTo("a@b.c");
+        assertThat(decoded.getTaskName()).isNull();
+        EmailMessageForTask roundTrip = (EmailMessageForTask) codec.fromMessage(codec.toMessage(decoded, new MessageProperties()));
+        assertThat(roundTrip.getTo()).isEqualTo("a@b.c");
+    }
+
+    @Test
+    void shouldRejectUnknownSchemaVersions() {
+        Message message = codec.toMessage(new EmailMessage("a@b.c", "s", "b"), new MessageProperties());
+        message.getMessageProperties().setHeader(EmailMessageCodec.SCHEMA_HEADER, 2);
+
+        assertThatThrownBy(() -> codec.fromMessage(message)).isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void shouldFallBackToJacksonForOtherPayloads() throws Exception {
+        Message message = codec.toMessage(Map.of("key", "value"), new MessageProperties());
+
+        assertThat(objectMapper.readTree(message.getBody()).get("key").asText()).isEqualTo("value");
+        assertThat(message.getMessageProperties().getHeaders()).doesNotContainKey(EmailMessageCodec.SCHEMA_HEADER);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.apitask.email;
+
+import com.example.apitask.models.EmailOutbox;
+import com.example.apitask.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EmailOutboxRelayTest {
+
+    private EmailOutboxRepository emailOutboxRepository;
+    private RabbitTemplate rabbitTemplate;
+    private PlatformTransactionManager transactionManager;
+    private final List<Message> sent = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository = mock(EmailOutboxRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+    }
+
+    private EmailOutboxRelay relay(int batchSize) {
+        return new EmailOutboxRelay(emailOutboxRepository, rabbitTemplate, transactionManager, batchSize, 100, 10, 60_000, meterRegistry);
+    }
+
+    private List<EmailOutbox> rows(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            EmailOutbox row = new EmailOutbox("emails-queue", EmailMessage.class.getName(), "{\"to\":\"user" + i + "@gmail.com\"}", LocalDateTime.now());
+            row.setId(UUID.randomUUID());
+            return row;
+        }).toList();
+    }
+
+    private void confirmAllBut(int nackedIndex) {
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(2));
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(sent.size() - 1 != nackedIndex, null));
+            return null;
+        }).when(rabbitTemplate).send(eq(""), eq("emails-queue"), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void shouldPublishClaimedMessagesAndDeleteTheConfirmedOnes() {
+        List<EmailOutbox> rows = rows(3);
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows);
+        confirmAllBut(1);
+
+        int relayed = relay(10).relayPending();
+
+        assertThat(relayed).isEqualTo(2);
+        assertThat(sent).hasSize(3);
+        Message first = sent.getFirst();
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo(rows.getFirst().getPayload());
+        assertThat(first.getMessageProperties().getMessageId()).isEqualTo(rows.getFirst().getId().toString());
+        assertThat((String) first.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME))
+                .isEqualTo(EmailMessage.class.getName());
+        verify(emailOutboxRepository).deleteByIds(List.of(rows.get(0).getId(), rows.get(2).getId()));
+        verify(emailOutboxRepository).incrementAttempts(List.of(rows.get(1).getId()));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldLeaseTheBatchAndCommitBeforePublishing() {
+        List<EmailOutbox> rows = rows(2);
+        List<UUID> ids = rows.stream().map(EmailOutbox::getId).toList();
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows);
+        confirmAllBut(-1);
+        LocalDateTime before = LocalDateTime.now();
+
+        relay(10).relayPending();
+
+        InOrder order = inOrder(emailOutboxRepository, transactionManager, rabbitTemplate);
+        order.verify(emailOutboxRepository).lease(eq(ids), argThat(until -> !until.isBefore(before.plusSeconds(60))));
+        order.verify(transactionManager).commit(any());
+        order.verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(emailOutboxRepository).deleteByIds(ids);
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldDeadLetterMessagesOnTheirLastAttempt() {
+        List<EmailOutbox> rows = rows(2);
+        List<UUID> ids = rows.stream().map(EmailOutbox::getId).toList();
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows);
+        when(emailOutboxRepository.deadLetter(eq(ids), eq(10), any(LocalDateTime.class))).thenReturn(1);
+        doThrow(new AmqpConnectException(new RuntimeException("down")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        relay(10).relayPending();
+
+        verify(emailOutboxRepository).incrementAttempts(ids);
+        assertThat(meterRegistry.get("email.outbox.dead.lettered").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("email.outbox.failures").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepDrainingWhileBatchesAreFull() {
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows(2), rows(2), rows(1));
+        confirmAllBut(-1);
+
+        int relayed = relay(2).relayPending();
+
+        assertThat(relayed).isEqualTo(5);
+        verify(emailOutboxRepository, times(3)).deleteByIds(anyCollection());
+        verify(transactionManager, times(6)).commit(any());
+    }
+
+    @Test
+    void shouldCountAnAttemptForEveryClaimedMessageWhenTheBrokerIsDown() {
+        List<EmailOutbox> rows = rows(2);
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows);
+        doThrow(new AmqpConnectException(new RuntimeException("down")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        int relayed = relay(2).relayPending();
+
+        assertThat(relayed).isZero();
+        verify(emailOutboxRepository).incrementAttempts(List.of(rows.get(0).getId(), rows.get(1).getId()));
+        verify(emailOutboxRepository, never()).deleteByIds(anyCollection());
+        verify(emailOutboxRepository, times(1)).claimBatch(anyInt(), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldWaitForConfirmsOnceForTheWholeBatch() {
+        List<EmailOutbox> rows = rows(5);
+        when(emailOutboxRepository.claimBatch(eq(10), any(LocalDateTime.class), any(Pageable.class))).thenReturn(rows);
+
+        long started = System.nanoTime();
+        int relayed = relay(10).relayPending();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(relayed).isZero();
+        assertThat(elapsedMillis).isLessThan(5 * 100);
+        verify(emailOutboxRepository).incrementAttempts(rows.stream().map(EmailOutbox::getId).toList());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.apitask.factories;
 
 import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.dtos.tasks.TaskRow;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
 import com.example.apitask.models.Tasks;
@@ -72,4 +73,19 @@ public class TaskFactory {
                 number == 0
         );
     }
+
+    public TaskRow createTaskRow(int number) {
+        String uuidSeed = "task-" + number;
+        UUID id = UUID.nameUUIDFromBytes(uuidSeed.getBytes());
+
+        return new TaskRow(
+                id,
+                "Task " + number,
+                "Description for task " + number,
+                number % 2 == 0,
+                LocalDate.now().minusDays(number),
+                number % 2 == 0 ? LocalDate.now() : null,
+                LocalDate.now().plusDays(number)
+        );
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.apitask.infra.security;
+
+import com.example.apitask.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedPasswordEncoderTest {
+
+    @Test
+    void shouldHashAndVerifyOnTheHashingPool() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, new SimpleMeterRegistry())) {
+            String hash = encoder.encode("secret");
+
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(encoder.matches("other", hash)).isFalse();
+        }
+    }
+
+    @Test
+    void shouldRejectRightAwayWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, new SimpleMeterRegistry())) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+            while (encoder.queued() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(PasswordHashingBusyException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNeverCalibrateBelowMinimumStrength() {
+        assertThat(BoundedPasswordEncoder.calibrate(1, 4)).isEqualTo(4);
+        assertThat(BoundedPasswordEncoder.calibrate(60_000, 4)).isGreaterThan(4);
+    }
+}
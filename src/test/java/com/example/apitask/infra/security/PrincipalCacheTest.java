@@ -0,0 +1,88 @@
+package com.example.apitask.infra.security;
+
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.models.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrincipalCacheTest {
+
+    private PrincipalCache principalCache;
+
+    private final UserFactory usersFactory = new UserFactory();
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, 7200);
+    }
+
+    @Test
+    void shouldReturnCachedPrincipalForSameSubjectAndTokenId() {
+        Users user = usersFactory.createUser(1);
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().plusSeconds(60), principalCache.generation(user.getId()));
+
+        assertThat(principalCache.get(user.getEmail(), "token-1")).get().extracting(Users::getId).isEqualTo(user.getId());
+        assertThat(principalCache.get(user.getEmail(), "token-2")).isEmpty();
+        assertThat(principalCache.stats().hitCount()).isEqualTo(1);
+        assertThat(principalCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheExpiredToken() {
+        Users user = usersFactory.createUser(1);
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().minusSeconds(1), principalCache.generation(user.getId()));
+
+        assertThat(principalCache.get(user.getEmail(), "token-1")).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateEveryTokenOfUser() {
+        Users user = usersFactory.createUser(1);
+        Users other = usersFactory.createUser(2);
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().plusSeconds(60), principalCache.generation(user.getId()));
+        principalCache.put(user.getEmail(), "token-2", user, Instant.now().plusSeconds(60), principalCache.generation(user.getId()));
+        principalCache.put(other.getEmail(), "token-3", other, Instant.now().plusSeconds(60), principalCache.generation(other.getId()));
+
+        principalCache.invalidateUser(user.getId());
+
+        assertThat(principalCache.get(user.getEmail(), "token-1")).isEmpty();
+        assertThat(principalCache.get(user.getEmail(), "token-2")).isEmpty();
+        assertThat(principalCache.get(other.getEmail(), "token-3")).isPresent();
+
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().plusSeconds(60), principalCache.generation(user.getId()));
+        assertThat(principalCache.get(user.getEmail(), "token-1")).isPresent();
+    }
+
+    @Test
+    void shouldNotServeEntryLoadedBeforeAnInvalidation() {
+        Users user = usersFactory.createUser(1);
+        long generation = principalCache.generation(user.getId());
+
+        // the user changes while the filter is still loading it
+        principalCache.invalidateUser(user.getId());
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().plusSeconds(60), generation);
+
+        assertThat(principalCache.get(user.getEmail(), "token-1")).isEmpty();
+    }
+
+    @Test
+    void shouldCacheOnlyTheIdentityNotTheEntity() {
+        Users user = usersFactory.createUser(3);
+        principalCache.put(user.getEmail(), "token-1", user, Instant.now().plusSeconds(60), principalCache.generation(user.getId()));
+        user.setPointers(999);
+
+        Users first = principalCache.get(user.getEmail(), "token-1").orElseThrow();
+        Users second = principalCache.get(user.getEmail(), "token-1").orElseThrow();
+
+        assertThat(first).isNotSameAs(user).isNotSameAs(second);
+        assertThat(first.getId()).isEqualTo(user.getId());
+        assertThat(first.getEmail()).isEqualTo(user.getEmail());
+        assertThat(first.getRole()).isEqualTo(user.getRole());
+        assertThat(first.getPointers()).isNotEqualTo(999);
+        assertThat(first.getStreakData()).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.apitask.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.models.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TokenServiceTest {
+
+    private static final String SECRET = "test-secret";
+
+    private TokenService tokenService;
+
+    private final UserFactory usersFactory = new UserFactory();
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(SECRET, "k1", Map.of(), 100, 7200);
+    }
+
+    @Test
+    void shouldSignWithActiveKeyId() {
+        Users user = usersFactory.createUser(1);
+
+        DecodedJWT jwt = tokenService.decodeToken(tokenService.generateToken(user));
+
+        assertThat(jwt.getKeyId()).isEqualTo("k1");
+        assertThat(jwt.getSubject()).isEqualTo(user.getEmail());
+        assertThat(jwt.getId()).isNotBlank();
+    }
+
+    @Test
+    void shouldExpireAfterTheConfiguredLifetimeWhateverTheHostZone() {
+        Users user = usersFactory.createUser(1);
+        Instant before = Instant.now();
+
+        DecodedJWT jwt = tokenService.decodeToken(tokenService.generateToken(user));
+
+        assertThat(jwt.getExpiresAtAsInstant())
+                .isBetween(before.plusSeconds(7200).minusSeconds(1), Instant.now().plusSeconds(7200));
+    }
+
+    @Test
+    void shouldKeepVerifyingOldTokensAfterRotation() {
+        Users user = usersFactory.createUser(1);
+        String oldToken = tokenService.generateToken(user);
+
+        tokenService.rotateKey("k2", "rotated-secret");
+        String newToken = tokenService.generateToken(user);
+
+        assertThat(tokenService.decodeToken(oldToken).getKeyId()).isEqualTo("k1");
+        assertThat(tokenService.decodeToken(newToken).getKeyId()).isEqualTo("k2");
+    }
+
+    @Test
+    void shouldRejectTokensOfRetiredKey() {
+        Users user = usersFactory.createUser(1);
+        String oldToken = tokenService.generateToken(user);
+
+        tokenService.rotateKey("k2", "rotated-secret");
+        tokenService.retireKey("k1");
+
+        assertThat(tokenService.validateToken(oldToken)).isNull();
+        assertThatThrownBy(() -> tokenService.retireKey("k2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldVerifyLegacyTokenWithoutKeyId() {
+        String legacyToken = JWT.create()
+                .withIssuer("apitask")
+                .withSubject("legacy@gmail.com")
+                .withExpiresAt(Instant.now().plusSeconds(60))
+                .sign(Algorithm.HMAC256(SECRET));
+
+        assertThat(tokenService.validateToken(legacyToken)).isEqualTo("legacy@gmail.com");
+    }
+
+    @Test
+    void shouldServeRepeatedTokenFromVerifiedCache() {
+        Users user = usersFactory.createUser(1);
+        String token = tokenService.generateToken(user);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tokenService.bindTo(registry);
+
+        VerifiedToken first = tokenService.verify(token);
+        VerifiedToken second = tokenService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.userId()).isEqualTo(user.getId());
+        assertThat(first.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        assertThat(registry.get("jwt.verified.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithUnknownSecret() {
+        String forged = JWT.create()
+                .withKeyId("k1")
+                .withIssuer("apitask")
+                .withSubject("user@gmail.com")
+                .sign(Algorithm.HMAC256("other-secret"));
+
+        assertThatThrownBy(() -> tokenService.decodeToken(forged)).isInstanceOf(JWTVerificationException.class);
+    }
+}
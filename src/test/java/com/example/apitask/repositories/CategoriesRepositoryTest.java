@@ -6,6 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @DataJpaTest
@@ -34,4 +38,14 @@ public class CategoriesRepositoryTest {
         boolean exists = categoriesRepository.existsByName("Category");
         assertThat(exists).isFalse();
     }
+
+    @Test
+    void shouldReturnOnlyExistingIdsWhenLocking() {
+        Categories category = categoriesRepository.saveAndFlush(new Categories("Locked"));
+        UUID missing = UUID.randomUUID();
+
+        Set<UUID> existing = categoriesRepository.lockExistingIds(List.of(category.getId(), missing));
+
+        assertThat(existing).isEqualTo(Set.of(category.getId()));
+    }
 }
@@ -0,0 +1,84 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.models.EmailOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmailOutboxRepositoryTest {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    private List<UUID> insert(int count) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        return emailOutboxRepository.saveAll(IntStream.range(0, count)
+                        .mapToObj(i -> new EmailOutbox("emails-queue", "com.example.apitask.email.EmailMessage", "{\"to\":\"user" + i + "@gmail.com\"}", start.plusSeconds(i)))
+                        .toList())
+                .stream().map(EmailOutbox::getId).toList();
+    }
+
+    @Test
+    void shouldClaimOldestMessagesThatStillHaveAttemptsLeft() {
+        List<UUID> ids = insert(4);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> emailOutboxRepository.incrementAttempts(List.of(ids.get(0))));
+
+        List<UUID> claimed = tx.execute(status -> emailOutboxRepository.claimBatch(1, LocalDateTime.now(), PageRequest.ofSize(2))
+                .stream().map(EmailOutbox::getId).toList());
+
+        assertThat(claimed).containsExactly(ids.get(1), ids.get(2));
+    }
+
+    @Test
+    void shouldNotClaimLeasedOrDeadLetteredMessages() {
+        List<UUID> ids = insert(4);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 2, 8, 0);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            emailOutboxRepository.lease(List.of(ids.get(0)), now.plusMinutes(1));
+            emailOutboxRepository.lease(List.of(ids.get(1)), now.minusMinutes(1));
+            emailOutboxRepository.incrementAttempts(List.of(ids.get(2)));
+            emailOutboxRepository.deadLetter(List.of(ids.get(2), ids.get(3)), 1, now);
+        });
+
+        List<UUID> claimed = tx.execute(status -> emailOutboxRepository.claimBatch(10, now, PageRequest.ofSize(10))
+                .stream().map(EmailOutbox::getId).toList());
+
+        // the expired lease is claimable again; only the message out of attempts was dead-lettered
+        assertThat(claimed).containsExactly(ids.get(1), ids.get(3));
+    }
+
+    @Test
+    void shouldDeleteRelayedMessages() {
+        List<UUID> ids = insert(3);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> emailOutboxRepository.deleteByIds(ids.subList(0, 2)));
+
+        assertThat(emailOutboxRepository.findAll()).extracting(EmailOutbox::getId).containsExactly(ids.get(2));
+    }
+}
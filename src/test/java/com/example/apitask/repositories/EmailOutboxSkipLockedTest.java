@@ -0,0 +1,87 @@
+package com.example.apitask.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the outbox claim the way Hibernate renders {@link EmailOutboxRepository#claimBatch} for
+ * Postgres, from two open transactions at once, and checks that the second relay skips the rows the
+ * first one holds instead of blocking on them. H2 has no SKIP LOCKED support in Hibernate, so this
+ * needs a real Postgres.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EmailOutboxSkipLockedTest {
+
+    private static final String CLAIM = "select id from email_outbox where dead_lettered_at is null and attempts < 10 " +
+            "and (leased_until is null or leased_until < localtimestamp) order by created_at fetch first %d rows only for update skip locked";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private Connection first;
+    private Connection second;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        first = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        second = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = first.createStatement()) {
+            statement.execute("insert into email_outbox (routing_key, payload_type, payload, created_at) " +
+                    "select 'emails-queue', 'com.example.apitask.email.EmailMessage', '{}', timestamp '2025-01-01 08:00' + i * interval '1 second' " +
+                    "from generate_series(1, 4) i");
+        }
+        first.setAutoCommit(false);
+        second.setAutoCommit(false);
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void shouldHandConcurrentRelaysDisjointBatches() throws SQLException {
+        List<String> claimedFirst = claim(first, 2);
+        List<String> claimedSecond = claim(second, 10);
+
+        assertThat(claimedFirst).hasSize(2);
+        assertThat(claimedSecond).hasSize(2).doesNotContainAnyElementsOf(claimedFirst);
+
+        first.rollback();
+        second.rollback();
+    }
+
+    private List<String> claim(Connection connection, int limit) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(CLAIM.formatted(limit))) {
+            while (rows.next()) {
+                ids.add(rows.getString(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.models.Users;
+import com.example.apitask.services.LeaderboardService;
+import com.example.apitask.services.StreakResetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the nightly streak reset against the Flyway schema on a real Postgres, where the id range
+ * queries have to work on a uuid column. H2 accepts aggregates over UUID that Postgres rejects, so
+ * the H2 repository tests cannot catch those.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StreakResetService.class, StreakResetPostgresTest.Meters.class})
+public class StreakResetPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("streak.reset.chunk-size", () -> "2");
+    }
+
+    @TestConfiguration
+    static class Meters {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private StreakResetService streakResetService;
+
+    @MockitoBean
+    private LeaderboardService leaderboardService;
+
+    @Test
+    void shouldResetLapsedStreaksInIdRangesOnPostgres() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        LocalDate[] streaks = {null, today.minusDays(5), today.minusDays(1), today, today.minusDays(2)};
+        List<Users> users = new ArrayList<>();
+        for (int i = 0; i < streaks.length; i++) {
+            Users user = new Users();
+            user.setRole(UsersRole.USER);
+            user.setPointers(4);
+            user.setStreakData(streaks[i]);
+            user.setEmail("streak" + i + "@gmail.com");
+            user.setPassword("12345678eu");
+            users.add(user);
+        }
+        usersRepository.saveAllAndFlush(users);
+
+        int reset = streakResetService.resetExpiredStreaks(today);
+
+        assertThat(reset).isEqualTo(3);
+        assertThat(usersRepository.findPointersByUsersId(users.get(0).getId())).isZero();
+        assertThat(usersRepository.findPointersByUsersId(users.get(1).getId())).isZero();
+        assertThat(usersRepository.findPointersByUsersId(users.get(2).getId())).isEqualTo(4);
+        assertThat(usersRepository.findPointersByUsersId(users.get(3).getId())).isEqualTo(4);
+        assertThat(usersRepository.findPointersByUsersId(users.get(4).getId())).isZero();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.dtos.tasks.TaskRow;
+import com.example.apitask.enums.TaskListFilter;
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.models.Categories;
+import com.example.apitask.models.Users;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "tasks.bulk.batch-size=2")
+@Import(TasksBulkRepository.class)
+@ActiveProfiles("test")
+public class TasksBulkRepositoryTest {
+
+    @Autowired
+    private TasksBulkRepository tasksBulkRepository;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldInsertTasksAndCategoryLinksAcrossBatches() {
+        Users user = new Users();
+        user.setEmail("bulk@example.com");
+        user.setPassword("123456");
+        user.setRole(UsersRole.USER);
+        usersRepository.saveAndFlush(user);
+        Categories category = categoriesRepository.saveAndFlush(new Categories("Bulk"));
+
+        List<TasksBulkRepository.NewTask> tasks = IntStream.range(0, 5)
+                .mapToObj(i -> new TasksBulkRepository.NewTask(UUID.randomUUID(), "Bulk " + i, "Description " + i,
+                        LocalDate.now(), LocalDate.now().plusDays(i), i % 2 == 0 ? Set.of(category.getId()) : Set.of()))
+                .toList();
+
+        tasksBulkRepository.insert(user.getId(), tasks);
+        entityManager.clear();
+
+        List<TaskRow> saved = tasksRepository.findRows(user.getId(), TaskListFilter.ALL, LocalDate.now(), 0, 10);
+        assertEquals(5, saved.size());
+        assertEquals(3, tasksRepository.findCategoryRows(saved.stream().map(TaskRow::id).toList()).size());
+        assertEquals(tasks.get(0).name(), tasksRepository.findById(tasks.get(0).id()).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.enums.TaskListFilter;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the migrations against a real Postgres holding a few thousand users and tasks, calls the
+ * repository methods, and explains the SQL Hibernate actually sent with the call's values bound in.
+ * The planner is left at its defaults, so a query that no index serves shows up as a sequential scan.
+ * The task row queries must also use the expected index, with the user and the keyset bound in its
+ * index condition and no sort step.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TasksIndexPlanTest.CapturedSql.class)
+public class TasksIndexPlanTest {
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID AFTER_ID = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    /** Records every statement Hibernate prepares, so the tests explain exactly what was sent. */
+    @TestConfiguration
+    static class CapturedSql implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("insert into users (id, email, password, role) values ('" + USER_ID + "', 'plan@example.com', 'x', 'USER')");
+            statement.execute("insert into users (id, email, password, role) " +
+                    "select gen_random_uuid(), 'user' || i || '@example.com', 'x', 'USER' from generate_series(1, 5000) i");
+            // Like the real table, most users have no points.
+            statement.execute("update users set pointers = case when random() < 0.1 then 1 + (random() * 20)::int else 0 end");
+            statement.execute("insert into tasks (description, completed, date_creation, date_conclusion, date_expiration, users_id) " +
+                    "select 'task', i % 2 = 0, current_date, case when i % 2 = 0 then current_date - i % 30 end, current_date + i % 60 - 30, u.id " +
+                    "from (select id from users order by id = '" + USER_ID + "' desc, id limit 200) u, generate_series(1, 100) i");
+            statement.execute("insert into categories (name) select 'plan' || i from generate_series(1, 50) i");
+            statement.execute("insert into tasks_category (tasks_id, category_id) " +
+                    "select t.id, c.id from (select id, row_number() over () % 50 as slot from tasks) t " +
+                    "join (select id, row_number() over () - 1 as slot from categories) c on c.slot = t.slot");
+            statement.execute("vacuum analyze");
+        }
+    }
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private CapturedSql capturedSql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldCountPendingTasksFromAnIndex() {
+        String plan = planOf(() -> tasksRepository.countByUsersIdAndCompletedFalse(USER_ID), USER_ID);
+
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void shouldDeleteOldCompletedTasksFromAnIndex() {
+        String plan = planOf(() -> tasksRepository.deleteOldCompleted(USER_ID, TODAY.minusDays(10)), USER_ID, TODAY.minusDays(10));
+
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void shouldReadLeadersFromAnIndex() {
+        String plan = planOf(() -> usersRepository.findLeaders(PageRequest.of(0, 100)), 100);
+
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void shouldCountUsersAheadFromAnIndex() {
+        String plan = planOf(() -> usersRepository.countByPointersGreaterThan(15), 15);
+
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void shouldFindTasksOfACategoryFromAnIndex() {
+        // Not Hibernate SQL: the lookup Postgres runs for the foreign key when a category is deleted.
+        UUID categoryId = jdbcTemplate.queryForObject("select id from categories limit 1", UUID.class);
+
+        assertNoSequentialScan(explain("select 1 from tasks_category where category_id = '" + categoryId + "'"));
+    }
+
+    static Stream<Arguments> taskRowQueries() {
+        return Stream.of(
+                Arguments.of(TaskListFilter.ALL, "idx_tasks_users_due_date"),
+                Arguments.of(TaskListFilter.COMPLETED, "idx_tasks_users_due_date"),
+                Arguments.of(TaskListFilter.PENDING, "idx_tasks_users_pending_due_date"),
+                Arguments.of(TaskListFilter.DUE, "idx_tasks_users_pending_due_date")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("taskRowQueries")
+    void shouldReadFirstTaskRowsInIndexOrder(TaskListFilter filter, String index) {
+        Object[] values = filter == TaskListFilter.DUE ? new Object[]{USER_ID, TODAY, 11} : new Object[]{USER_ID, 11};
+
+        String plan = planOf(() -> tasksRepository.findRows(USER_ID, filter, TODAY, 0, 11), values);
+
+        assertReadInIndexOrder(plan, index, false);
+    }
+
+    @ParameterizedTest
+    @MethodSource("taskRowQueries")
+    void shouldSeekTaskRowsInIndexOrder(TaskListFilter filter, String index) {
+        TaskCursor after = new TaskCursor(TODAY.plusDays(10), AFTER_ID);
+        Object[] values = filter == TaskListFilter.DUE
+                ? new Object[]{USER_ID, TODAY, after.dateExpiration(), after.id(), 11}
+                : new Object[]{USER_ID, after.dateExpiration(), after.id(), 11};
+
+        String plan = planOf(() -> tasksRepository.findRowsAfter(USER_ID, filter, TODAY, after, 11), values);
+
+        assertReadInIndexOrder(plan, index, true);
+    }
+
+    private void assertReadInIndexOrder(String plan, String index, boolean seek) {
+        String indexCond = plan.lines().filter(line -> line.contains("Index Cond:")).findFirst().orElse("");
+
+        assertTrue(plan.contains("Index Scan using " + index + " on tasks"), () -> "Expected " + index + ":\n" + plan);
+        assertFalse(plan.contains("Sort"), () -> "Explicit sort:\n" + plan);
+        assertTrue(indexCond.contains("users_id = "), () -> "User not in the index condition:\n" + plan);
+        if (seek) {
+            assertTrue(indexCond.contains("ROW(date_expiration, id) < "), () -> "Seek not in the index condition:\n" + plan);
+        }
+    }
+
+    private static void assertNoSequentialScan(String plan) {
+        assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan:\n" + plan);
+    }
+
+    /**
+     * Runs the repository call, takes the last statement Hibernate prepared for it and explains that
+     * statement with {@code values} bound to its parameters in order.
+     */
+    private String planOf(Runnable call, Object... values) {
+        capturedSql.statements.clear();
+        call.run();
+        String sql = capturedSql.statements.getLast();
+
+        String[] parts = sql.split("\\?", -1);
+        assertEquals(values.length, parts.length - 1, () -> "Parameters of:\n" + sql);
+        StringBuilder bound = new StringBuilder(parts[0]);
+        for (int i = 0; i < values.length; i++) {
+            bound.append(values[i] instanceof Number ? values[i] : "'" + values[i] + "'").append(parts[i + 1]);
+        }
+        return explain(bound.toString());
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForList("explain " + sql, String.class).stream()
+                .collect(Collectors.joining("\n", sql + "\n", "\n"));
+    }
+}
@@ -1,22 +1,29 @@
 package com.example.apitask.repositories;
 
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.dtos.tasks.TaskExportRow;
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.dtos.tasks.TaskRow;
+import com.example.apitask.enums.TaskListFilter;
 import com.example.apitask.enums.UsersRole;
+import com.example.apitask.models.Categories;
 import com.example.apitask.models.Tasks;
 import com.example.apitask.models.Users;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -31,6 +38,12 @@ public class TasksRepositoryTest {
     @Autowired
     private UsersRepository usersRepository;
 
+    @Autowired
+    private TaskRemindersRepository taskRemindersRepository;
+
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+
     private Users user;
 
     @BeforeEach
@@ -69,136 +82,190 @@ public class TasksRepositoryTest {
     }
 
     @Test
-    void shouldReturnTasksDueUpToTodayForUser() {
-        Pageable pageable = PageRequest.of(0, 10);
-        LocalDate today = LocalDate.now();
+    void shouldDeleteOldCompletedTasksForUser() {
+        LocalDate limitDate = LocalDate.now().minusDays(1);
+        Tasks oldCompletedTask = new Tasks();
+        oldCompletedTask.setName("Old Completed Task");
+        oldCompletedTask.setDescription("Old completed description");
+        oldCompletedTask.setCompleted(true);
+        oldCompletedTask.setDateCreation(LocalDate.now().minusDays(10));
+        oldCompletedTask.setDateExpiration(LocalDate.now().minusDays(9));
+        oldCompletedTask.setDateConclusion(LocalDate.now().minusDays(5));
+        oldCompletedTask.setUsers(user);
+        tasksRepository.saveAndFlush(oldCompletedTask);
 
-        Page<Tasks> tasksPage = tasksRepository.findTasksDueUpToDate(user.getId(), today, pageable);
+        int deletedCount = tasksRepository.deleteOldCompleted(user.getId(), limitDate);
 
-        assertEquals(2, tasksPage.getTotalElements());
-        assertTrue(tasksPage.getContent().stream().allMatch(t -> !t.getCompleted()));
-        assertTrue(tasksPage.getContent().stream().allMatch(t -> !t.getDateExpiration().isAfter(today)));
+        assertEquals(1, deletedCount);
 
-        assertTrue(tasksPage.getContent().get(0).getDateExpiration().isAfter(
-                tasksPage.getContent().get(1).getDateExpiration()) ||
-                tasksPage.getContent().get(0).getDateExpiration().isEqual(
-                        tasksPage.getContent().get(1).getDateExpiration()));
+        assertFalse(tasksRepository.existsById(oldCompletedTask.getId()));
     }
 
     @Test
-    void shouldReturnEmptyWhenUserHasNoTasksDue() {
-        Users newUser = new Users();
-        newUser.setEmail("empty@example.com");
-        newUser.setPassword("123456");
-        newUser.setRole(UsersRole.USER);
-        usersRepository.saveAndFlush(newUser);
-
-        Pageable pageable = PageRequest.of(0, 10);
-        LocalDate today = LocalDate.now();
-
-        Page<Tasks> tasksPage = tasksRepository.findTasksDueUpToDate(newUser.getId(), today, pageable);
+    void shouldReturnZeroWhenNoOldCompletedTasksExist() {
+        LocalDate limitDate = LocalDate.now().minusDays(100);
+        int deletedCount = tasksRepository.deleteOldCompleted(user.getId(), limitDate);
 
-        assertTrue(tasksPage.isEmpty());
+        assertEquals(0, deletedCount);
     }
 
     @Test
-    void shouldReturnOnlyIncompleteTasksForUser() {
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<Tasks> tasksPage = tasksRepository.findByUsersIdAndCompletedFalse(user.getId(), pageable);
-
-        assertEquals(2, tasksPage.getTotalElements());
-        assertTrue(tasksPage.getContent().stream().allMatch(t -> !t.getCompleted()));
-        assertTrue(tasksPage.getContent().stream().allMatch(t -> t.getUsers().getId().equals(user.getId())));
+    void shouldReturnDueTasksUntilReminderIsRecorded() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Tasks dueTomorrow = new Tasks();
+        dueTomorrow.setName("Due tomorrow");
+        dueTomorrow.setDescription("Pending");
+        dueTomorrow.setDateExpiration(tomorrow);
+        dueTomorrow.setUsers(user);
+
+        Tasks completedTomorrow = new Tasks();
+        completedTomorrow.setName("Completed tomorrow");
+        completedTomorrow.setDescription("Done");
+        completedTomorrow.setCompleted(true);
+        completedTomorrow.setDateExpiration(tomorrow);
+        completedTomorrow.setUsers(user);
+        tasksRepository.saveAllAndFlush(List.of(dueTomorrow, completedTomorrow));
+
+        List<TaskReminderRow> due = tasksRepository.streamDueWithoutReminder(tomorrow, new UUID(0L, 0L), 10).toList();
+        assertEquals(1, due.size());
+        assertEquals(dueTomorrow.getId(), due.get(0).taskId());
+        assertEquals(user.getId(), due.get(0).userId());
+        assertEquals(user.getEmail(), due.get(0).email());
+        assertEquals("Due tomorrow", due.get(0).taskName());
+
+        int recorded = taskRemindersRepository.recordSent(List.of(dueTomorrow.getId()), LocalDateTime.now());
+        assertEquals(1, recorded);
+        assertTrue(tasksRepository.streamDueWithoutReminder(tomorrow, new UUID(0L, 0L), 10).findAny().isEmpty());
     }
 
     @Test
-    void shouldReturnEmptyWhenUserHasNoTasks() {
-        Users newUser = new Users();
-        newUser.setEmail("empty@example.com");
-        newUser.setPassword("123456");
-        newUser.setRole(UsersRole.USER);
-        usersRepository.saveAndFlush(newUser);
-
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Tasks> tasksPage = tasksRepository.findByUsersIdAndCompletedFalse(newUser.getId(), pageable);
-
-        assertTrue(tasksPage.isEmpty());
+    void shouldWalkDueTasksAfterGivenId() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 3; i++) {
+            Tasks task = new Tasks();
+            task.setName("Due " + i);
+            task.setDescription("Pending " + i);
+            task.setDateExpiration(tomorrow);
+            task.setUsers(user);
+            tasksRepository.save(task);
+        }
+        tasksRepository.flush();
+
+        List<TaskReminderRow> first = tasksRepository.streamDueWithoutReminder(tomorrow, new UUID(0L, 0L), 2).toList();
+        List<TaskReminderRow> second = tasksRepository.streamDueWithoutReminder(tomorrow, first.get(1).taskId(), 2).toList();
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertTrue(first.stream().noneMatch(t -> t.taskId().equals(second.get(0).taskId())));
     }
 
     @Test
-    void shouldReturnCompletedTasksForUser() {
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<Tasks> tasksPage = tasksRepository.findByUsersIdAndCompletedTrue(user.getId(), pageable);
-
-        assertEquals(1, tasksPage.getTotalElements());
-        assertTrue(tasksPage.getContent().stream().allMatch(Tasks::getCompleted));
+    void shouldGroupDueTasksByUser() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Users other = new Users();
+        other.setEmail("other@example.com");
+        other.setPassword("123456");
+        other.setRole(UsersRole.USER);
+        usersRepository.saveAndFlush(other);
+
+        for (Users owner : List.of(user, other, user, other)) {
+            Tasks task = new Tasks();
+            task.setName("Due for " + owner.getEmail());
+            task.setDescription("Pending");
+            task.setDateExpiration(tomorrow);
+            task.setUsers(owner);
+            tasksRepository.save(task);
+        }
+        tasksRepository.flush();
+
+        List<TaskReminderRow> rows = tasksRepository.streamDueWithoutReminderByUser(tomorrow, new UUID(0L, 0L), 10).toList();
+        UUID firstUser = rows.get(0).userId();
+        List<TaskReminderRow> after = tasksRepository.streamDueWithoutReminderByUser(tomorrow, firstUser, 10).toList();
+
+        assertEquals(4, rows.size());
+        assertEquals(firstUser, rows.get(1).userId());
+        assertEquals(rows.get(2).userId(), rows.get(3).userId());
+        assertEquals(2, after.size());
+        assertTrue(after.stream().noneMatch(r -> r.userId().equals(firstUser)));
     }
 
-
     @Test
-    void shouldReturnEmptyWhenUserHasNoCompletedTasks() {
-        UUID fakeUserId = UUID.randomUUID();
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<Tasks> tasksPage = tasksRepository.findByUsersIdAndCompletedTrue(fakeUserId, pageable);
-
-        assertTrue(tasksPage.isEmpty());
+    void shouldSeekTasksPastCursorInDueDateOrder() {
+        LocalDate date = LocalDate.now().plusDays(10);
+        for (int i = 0; i < 3; i++) {
+            Tasks task = new Tasks();
+            task.setName("Same day " + i);
+            task.setDescription("Pending " + i);
+            task.setDateExpiration(date);
+            task.setUsers(user);
+            tasksRepository.save(task);
+        }
+        tasksRepository.flush();
+
+        List<TaskRow> first = tasksRepository.findRowsAfter(user.getId(), TaskListFilter.PENDING, LocalDate.now(), null, 2);
+        TaskRow last = first.get(1);
+        List<TaskRow> rest = tasksRepository.findRowsAfter(user.getId(), TaskListFilter.PENDING, LocalDate.now(),
+                new TaskCursor(last.dateExpiration(), last.id()), 10);
+
+        assertEquals(2, first.size());
+        assertEquals(3, rest.size());
+        assertTrue(rest.stream().noneMatch(t -> first.stream().anyMatch(f -> f.id().equals(t.id()))));
+        assertTrue(rest.stream().noneMatch(TaskRow::completed));
+        assertEquals(date, rest.get(0).dateExpiration());
+        assertEquals(LocalDate.now().minusDays(1), rest.get(2).dateExpiration());
     }
 
     @Test
-    void shouldReturnAllTasksForUser() {
-        Pageable pageable = PageRequest.of(0, 10);
+    void shouldLimitDueFilterToToday() {
+        tasksRepository.flush();
+        List<TaskRow> due = tasksRepository.findRows(user.getId(), TaskListFilter.DUE, LocalDate.now(), 0, 10);
 
-        Page<Tasks> tasksPage = tasksRepository.findAllByUsersId(user.getId(), pageable);
-
-        assertEquals(3, tasksPage.getTotalElements());
-        assertTrue(tasksPage.getContent().stream().allMatch(t -> t.getUsers().getId().equals(user.getId())));
+        assertEquals(2, due.size());
+        assertTrue(due.stream().noneMatch(t -> t.dateExpiration().isAfter(LocalDate.now())));
     }
 
     @Test
-    void shouldReturnEmptyWhenUserByIdHasNoTasks() {
-        UUID fakeUserId = UUID.randomUUID();
-        Pageable pageable = PageRequest.of(0, 10);
-
-        Page<Tasks> tasksPage = tasksRepository.findAllByUsersId(fakeUserId, pageable);
-
-        assertTrue(tasksPage.isEmpty());
+    void shouldPageRowsAndLoadTheirCategoriesInOneLookup() {
+        Categories category = categoriesRepository.save(new Categories("Rows"));
+        Tasks tagged = new Tasks();
+        tagged.setName("Tagged");
+        tagged.setDescription("With category");
+        tagged.setDateExpiration(LocalDate.now().plusDays(3));
+        tagged.setUsers(user);
+        tagged.setCategories(Set.of(category));
+        tasksRepository.saveAndFlush(tagged);
+
+        List<TaskRow> firstPage = tasksRepository.findRows(user.getId(), TaskListFilter.ALL, LocalDate.now(), 0, 2);
+        List<TaskRow> secondPage = tasksRepository.findRows(user.getId(), TaskListFilter.ALL, LocalDate.now(), 2, 2);
+        List<TaskCategoryRow> categories = tasksRepository.findCategoryRows(firstPage.stream().map(TaskRow::id).toList());
+
+        assertEquals(List.of(tagged.getId()), firstPage.stream().limit(1).map(TaskRow::id).toList());
+        assertEquals(2, secondPage.size());
+        assertEquals(1, categories.size());
+        assertEquals(category.getId(), categories.get(0).categoryId());
+        assertEquals("Rows", categories.get(0).name());
     }
 
     @Test
-    void shouldDeleteOldCompletedTasksForUser() {
-        LocalDate limitDate = LocalDate.now().minusDays(1);
-        Tasks oldCompletedTask = new Tasks();
-        oldCompletedTask.setName("Old Completed Task");
-        oldCompletedTask.setDescription("Old completed description");
-        oldCompletedTask.setCompleted(true);
-        oldCompletedTask.setDateCreation(LocalDate.now().minusDays(10));
-        oldCompletedTask.setDateExpiration(LocalDate.now().minusDays(9));
-        oldCompletedTask.setDateConclusion(LocalDate.now().minusDays(5));
-        oldCompletedTask.setUsers(user);
-        tasksRepository.saveAndFlush(oldCompletedTask);
-
-        int deletedCount = tasksRepository.deleteOldCompleted(user.getId(), limitDate);
-
-        assertEquals(1, deletedCount);
-
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Tasks> tasksPage = tasksRepository.findByUsersIdAndCompletedTrue(user.getId(), pageable);
-        assertTrue(tasksPage.getContent().stream()
-                .noneMatch(t -> t.getId().equals(oldCompletedTask.getId())));
+    void shouldStreamExportRowsMatchingFilters() {
+        Users other = new Users();
+        other.setEmail("other@example.com");
+        other.setPassword("123456");
+        other.setRole(UsersRole.USER);
+        usersRepository.saveAndFlush(other);
+        Tasks foreign = new Tasks();
+        foreign.setName("Foreign");
+        foreign.setDescription("Other user");
+        foreign.setDateExpiration(LocalDate.now());
+        foreign.setUsers(other);
+        tasksRepository.saveAndFlush(foreign);
+
+        List<TaskExportRow> pending = tasksRepository.streamForExport(user.getId(), false, null, LocalDate.now().minusDays(1)).toList();
+        List<TaskExportRow> everyone = tasksRepository.streamForExport(null, null, LocalDate.now(), null).toList();
+
+        assertEquals(List.of("Task 1"), pending.stream().map(TaskExportRow::name).toList());
+        assertEquals(user.getId(), pending.get(0).userId());
+        assertEquals(3, everyone.size());
+        assertTrue(everyone.stream().anyMatch(r -> r.userId().equals(other.getId())));
     }
-
-    @Test
-    void shouldReturnZeroWhenNoOldCompletedTasksExist() {
-        LocalDate limitDate = LocalDate.now().minusDays(100);
-        int deletedCount = tasksRepository.deleteOldCompleted(user.getId(), limitDate);
-
-        assertEquals(0, deletedCount);
-    }
-
-
-
-
 }
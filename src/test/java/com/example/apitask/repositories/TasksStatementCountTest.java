@@ -0,0 +1,89 @@
+package com.example.apitask.repositories;
+
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskRow;
+import com.example.apitask.enums.TaskListFilter;
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.models.Categories;
+import com.example.apitask.models.Tasks;
+import com.example.apitask.models.Users;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class TasksStatementCountTest {
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Users user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        user = new Users();
+        user.setEmail("stats@example.com");
+        user.setPassword("123456");
+        user.setRole(UsersRole.USER);
+        usersRepository.save(user);
+
+        Categories work = categoriesRepository.save(new Categories("Work"));
+        Categories home = categoriesRepository.save(new Categories("Home"));
+        for (int i = 0; i < 10; i++) {
+            Tasks task = new Tasks();
+            task.setName("Task " + i);
+            task.setDescription("Description " + i);
+            task.setDateExpiration(LocalDate.now().plusDays(i));
+            task.setUsers(user);
+            task.setCategories(Set.of(i % 2 == 0 ? work : home));
+            tasksRepository.save(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldLoadCategoriesOfWholePageInOneStatement() {
+        List<TaskRow> rows = tasksRepository.findRows(user.getId(), TaskListFilter.ALL, LocalDate.now(), 0, 5);
+        List<TaskCategoryRow> categories = tasksRepository.findCategoryRows(rows.stream().map(TaskRow::id).toList());
+
+        // page select + one categories select for the whole page
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(5, rows.size());
+        assertEquals(5, categories.size());
+    }
+
+    @Test
+    void shouldLoadAllTasksWithCategoriesInOneStatement() {
+        List<Tasks> tasks = tasksRepository.findAll();
+        tasks.forEach(task -> task.getCategories().size());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(10, tasks.size());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.apitask.repositories;
 
+import com.example.apitask.dtos.leaderboard.LeaderboardRow;
 import com.example.apitask.enums.UsersRole;
 import com.example.apitask.models.Users;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,11 +8,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -49,6 +53,84 @@ public class UsersRepositoryTest {
         assertEquals(0, pointers);
     }
 
+    @Test
+    void shouldRestartLapsedStreakAndExtendCurrentOne() {
+        LocalDate today = LocalDate.now();
+        Users lapsed = new Users();
+        lapsed.setRole(UsersRole.USER);
+        lapsed.setPointers(7);
+        lapsed.setStreakData(today.minusDays(3));
+        lapsed.setEmail("lapsed@gmail.com");
+        lapsed.setPassword("12345678eu");
+        Users current = new Users();
+        current.setRole(UsersRole.USER);
+        current.setPointers(7);
+        current.setStreakData(today.minusDays(1));
+        current.setEmail("current@gmail.com");
+        current.setPassword("12345678eu");
+        usersRepository.saveAllAndFlush(List.of(lapsed, current));
+
+        assertEquals(0, usersRepository.findStreakByUsersId(lapsed.getId()).orElseThrow().pointersOn(today));
+        assertEquals(1, usersRepository.awardDailyPoint(lapsed.getId(), today, today.minusDays(1)));
+        assertEquals(1, usersRepository.awardDailyPoint(current.getId(), today, today.minusDays(1)));
+        assertEquals(0, usersRepository.awardDailyPoint(current.getId(), today, today.minusDays(1)));
+
+        assertEquals(1, usersRepository.findStreakByUsersId(lapsed.getId()).orElseThrow().pointersOn(today));
+        assertEquals(8, usersRepository.findStreakByUsersId(current.getId()).orElseThrow().pointersOn(today));
+    }
+
+    @Test
+    void shouldResetOnlyLapsedStreaksWithinIdRange() {
+        LocalDate today = LocalDate.now();
+        List<Users> users = new ArrayList<>();
+        LocalDate[] streaks = {null, today.minusDays(5), today.minusDays(1), today};
+        for (int i = 0; i < streaks.length; i++) {
+            Users user = new Users();
+            user.setRole(UsersRole.USER);
+            user.setPointers(4);
+            user.setStreakData(streaks[i]);
+            user.setEmail("streak" + i + "@gmail.com");
+            user.setPassword("12345678eu");
+            users.add(user);
+        }
+        usersRepository.saveAllAndFlush(users);
+
+        UUID after = new UUID(0L, 0L);
+        int reset = 0;
+        for (UUID until = usersRepository.findIdRangeEnd(after, 3); until != null; until = usersRepository.findIdRangeEnd(after, 3)) {
+            reset += usersRepository.resetExpiredStreaks(after, until, today.minusDays(1));
+            after = until;
+        }
+
+        assertEquals(2, reset);
+        assertEquals(0, usersRepository.findPointersByUsersId(users.get(0).getId()));
+        assertEquals(0, usersRepository.findPointersByUsersId(users.get(1).getId()));
+        assertEquals(4, usersRepository.findPointersByUsersId(users.get(2).getId()));
+        assertEquals(4, usersRepository.findPointersByUsersId(users.get(3).getId()));
+    }
+
+    @Test
+    void shouldListLeadersWithPointsAndCountUsersAhead() {
+        int[] points = {0, 3, 8, 3};
+        List<Users> users = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            Users user = new Users();
+            user.setRole(UsersRole.USER);
+            user.setPointers(points[i]);
+            user.setEmail("leader" + i + "@gmail.com");
+            user.setPassword("12345678eu");
+            users.add(user);
+        }
+        usersRepository.saveAllAndFlush(users);
+
+        List<LeaderboardRow> leaders = usersRepository.findLeaders(PageRequest.of(0, 2));
+
+        assertEquals(2, leaders.size());
+        assertEquals("leader2@gmail.com", leaders.get(0).email());
+        assertEquals(3, leaders.get(1).pointers());
+        assertEquals(1, usersRepository.countByPointersGreaterThan(3));
+    }
+
     @Test
     void shouldReturnEmptyOptionalWhenEmailNotFound() {
         Optional<UserDetails> result = usersRepository.findByEmail("inexistente@gmail.com");
@@ -0,0 +1,105 @@
+package com.example.apitask.services;
+
+import com.example.apitask.factories.CategoryFactory;
+import com.example.apitask.models.Categories;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class CategoryCatalogTest {
+
+    private CategoryCatalog categoryCatalog;
+
+    @Mock
+    private CategoriesRepository categoriesRepository;
+
+    private final CategoryFactory categoryFactory = new CategoryFactory();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        categoryCatalog = new CategoryCatalog(categoriesRepository, new ObjectMapper());
+    }
+
+    @Test
+    void shouldLoadOnceAndAnswerLookupsFromSnapshot() {
+        Categories category = categoryFactory.createCategory(1);
+        when(categoriesRepository.findAll()).thenReturn(List.of(category));
+
+        CategoryCatalog.Snapshot first = categoryCatalog.snapshot();
+        CategoryCatalog.Snapshot second = categoryCatalog.snapshot();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.contains(category.getId())).isTrue();
+        assertThat(first.existsByName(category.getName())).isTrue();
+        assertThat(new String(first.json())).contains(category.getName());
+        verify(categoriesRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldSwapSnapshotOnWriteWithoutReloading() {
+        Categories existing = categoryFactory.createCategory(1);
+        Categories added = categoryFactory.createCategory(2);
+        when(categoriesRepository.findAll()).thenReturn(List.of(existing));
+        CategoryCatalog.Snapshot before = categoryCatalog.snapshot();
+
+        categoryCatalog.added(added);
+        CategoryCatalog.Snapshot afterAdd = categoryCatalog.snapshot();
+        categoryCatalog.removed(existing.getId());
+        CategoryCatalog.Snapshot afterRemove = categoryCatalog.snapshot();
+
+        assertThat(afterAdd.version()).isGreaterThan(before.version());
+        assertThat(afterAdd.etag()).isNotEqualTo(before.etag());
+        assertThat(afterAdd.categories()).hasSize(2);
+        assertThat(afterRemove.contains(existing.getId())).isFalse();
+        assertThat(afterRemove.existsByName(added.getName())).isTrue();
+        assertThat(before.categories()).hasSize(1);
+        verify(categoriesRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldKeepLocalWriteMadeWhileReloadWasReading() throws InterruptedException {
+        Categories existing = categoryFactory.createCategory(1);
+        Categories added = categoryFactory.createCategory(2);
+        when(categoriesRepository.findAll()).thenReturn(List.of(existing));
+        categoryCatalog.snapshot();
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        when(categoriesRepository.findAll()).thenAnswer(invocation -> {
+            Thread thread = Thread.ofVirtual().start(() -> categoryCatalog.added(added));
+            writer.set(thread);
+            while (thread.getState() != Thread.State.WAITING && thread.isAlive()) {
+                Thread.onSpinWait();
+            }
+            return List.of(existing);
+        });
+
+        categoryCatalog.reload();
+        writer.get().join();
+
+        assertThat(categoryCatalog.snapshot().contains(added.getId())).isTrue();
+        assertThat(categoryCatalog.snapshot().contains(existing.getId())).isTrue();
+    }
+
+    @Test
+    void shouldReplaceSnapshotOnReloadWhenNothingChangedLocally() {
+        Categories existing = categoryFactory.createCategory(1);
+        Categories remote = categoryFactory.createCategory(2);
+        when(categoriesRepository.findAll()).thenReturn(List.of(existing));
+        CategoryCatalog.Snapshot before = categoryCatalog.snapshot();
+        when(categoriesRepository.findAll()).thenReturn(List.of(existing, remote));
+
+        CategoryCatalog.Snapshot reloaded = categoryCatalog.reload();
+
+        assertThat(reloaded.version()).isGreaterThan(before.version());
+        assertThat(reloaded.contains(remote.getId())).isTrue();
+    }
+}
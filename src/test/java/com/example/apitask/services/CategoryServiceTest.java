@@ -9,6 +9,7 @@ import com.example.apitask.factories.UserFactory;
 import com.example.apitask.mappers.CategoriesMapper;
 import com.example.apitask.models.Categories;
 import com.example.apitask.repositories.CategoriesRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +26,7 @@ import java.util.UUID;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -37,12 +40,15 @@ public class CategoryServiceTest {
     @Mock
     private CategoriesMapper categoriesMapper;
 
+    @Mock
+    private CategoryCatalog categoryCatalog;
+
     private CategoryFactory categoriesFactory;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        categoryService = new CategoryService(categoriesRepository, categoriesMapper);
+        categoryService = new CategoryService(categoriesRepository, categoriesMapper, categoryCatalog);
         categoriesFactory = new CategoryFactory();
     }
 
@@ -52,7 +58,7 @@ public class CategoryServiceTest {
         Categories categoryEntity = categoriesFactory.createCategory(1);
         CategoriesResponseDTO responseDTO = categoriesFactory.createCategoryResponse(1);
 
-        when(categoriesRepository.existsByName(requestDTO.name())).thenReturn(false);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf());
         when(categoriesMapper.toEntity(requestDTO)).thenReturn(categoryEntity);
         when(categoriesMapper.toDTO(categoryEntity)).thenReturn(responseDTO);
 
@@ -60,8 +66,9 @@ public class CategoryServiceTest {
         CategoriesResponseDTO result = categoryService.createCategory(requestDTO);
 
         assertThat(result).isEqualTo(responseDTO);
-        verify(categoriesRepository, times(1)).existsByName(requestDTO.name());
+        verify(categoriesRepository, never()).existsByName(any());
         verify(categoriesRepository, times(1)).save(categoryEntity);
+        verify(categoryCatalog, times(1)).added(categoryEntity);
         verify(categoriesMapper, times(1)).toEntity(requestDTO);
         verify(categoriesMapper, times(1)).toDTO(categoryEntity);
     }
@@ -69,50 +76,54 @@ public class CategoryServiceTest {
     @Test
     void shouldThrowExceptionWhenCategoryAlreadyExists() {
         CategorieRequestDTO requestDTO = categoriesFactory.createCategoryRequest(1);
-        when(categoriesRepository.existsByName(requestDTO.name())).thenReturn(true);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(new CategoriesResponseDTO(UUID.randomUUID(), requestDTO.name())));
 
         assertThatThrownBy(() -> categoryService.createCategory(requestDTO))
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("Category already exists");
 
-        verify(categoriesRepository, times(1)).existsByName(requestDTO.name());
-        verifyNoMoreInteractions(categoriesRepository, categoriesMapper);
+        verifyNoInteractions(categoriesRepository, categoriesMapper);
     }
 
     @Test
-    void shouldReturnAllCategoriesSuccessfully() {
-        List<Categories> categoryEntities = List.of(
-                categoriesFactory.createCategory(1),
-                categoriesFactory.createCategory(2)
-        );
+    void shouldThrowExceptionWhenDatabaseRejectsDuplicateName() {
+        CategorieRequestDTO requestDTO = categoriesFactory.createCategoryRequest(1);
+        Categories categoryEntity = categoriesFactory.createCategory(1);
 
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf());
+        when(categoriesMapper.toEntity(requestDTO)).thenReturn(categoryEntity);
+        when(categoriesRepository.save(categoryEntity)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThatThrownBy(() -> categoryService.createCategory(requestDTO))
+                .isInstanceOf(DuplicateResourceException.class);
+        verify(categoryCatalog, never()).added(any());
+    }
+
+    @Test
+    void shouldReturnAllCategoriesSuccessfully() {
         List<CategoriesResponseDTO> responseDTOs = List.of(
                 categoriesFactory.createCategoryResponse(1),
                 categoriesFactory.createCategoryResponse(2)
         );
 
-        when(categoriesRepository.findAll()).thenReturn(categoryEntities);
-        when(categoriesMapper.toListResponse(categoryEntities)).thenReturn(responseDTOs);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(responseDTOs.toArray(CategoriesResponseDTO[]::new)));
 
         // Act
         List<CategoriesResponseDTO> result = categoryService.findAllCategory();
 
         // Assert
         assertThat(result).isEqualTo(responseDTOs);
-        verify(categoriesRepository, times(1)).findAll();
-        verify(categoriesMapper, times(1)).toListResponse(categoryEntities);
+        verifyNoInteractions(categoriesRepository, categoriesMapper);
     }
 
     @Test
     void shouldReturnEmptyListWhenNoCategoriesFound() {
-        when(categoriesRepository.findAll()).thenReturn(List.of());
-        when(categoriesMapper.toListResponse(List.of())).thenReturn(List.of());
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf());
 
         List<CategoriesResponseDTO> result = categoryService.findAllCategory();
 
         assertTrue(result.isEmpty());
-        verify(categoriesRepository, times(1)).findAll();
-        verify(categoriesMapper, times(1)).toListResponse(List.of());
+        verifyNoInteractions(categoriesRepository);
     }
 
     @Test
@@ -121,7 +132,7 @@ public class CategoryServiceTest {
         Categories category = categoriesFactory.createCategory(1);
         UUID categoryId = category.getId();
 
-        when(categoriesRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(new CategoriesResponseDTO(categoryId, category.getName())));
         doNothing().when(categoriesRepository).deleteById(categoryId);
 
         // Act
@@ -129,8 +140,8 @@ public class CategoryServiceTest {
 
         // Assert
         assertThat(result).isEqualTo("Category deleted successfully");
-        verify(categoriesRepository, times(1)).findById(categoryId);
         verify(categoriesRepository, times(1)).deleteById(categoryId);
+        verify(categoryCatalog, times(1)).removed(categoryId);
         verifyNoMoreInteractions(categoriesRepository);
     }
 
@@ -138,14 +149,31 @@ public class CategoryServiceTest {
     void shouldThrowExceptionWhenCategoryNotFound() {
         // Arrange
         UUID categoryId = UUID.randomUUID();
-        when(categoriesRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf());
 
         // Act & Assert
         assertThatThrownBy(() -> categoryService.deleteCategoryId(categoryId))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("category not found");
 
-        verify(categoriesRepository, times(1)).findById(categoryId);
+        verify(categoriesRepository).existsById(categoryId);
         verifyNoMoreInteractions(categoriesRepository);
     }
+
+    @Test
+    void shouldDeleteCategoryMissingFromStaleSnapshot() {
+        UUID categoryId = UUID.randomUUID();
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf());
+        when(categoriesRepository.existsById(categoryId)).thenReturn(true);
+
+        String result = categoryService.deleteCategoryId(categoryId);
+
+        assertThat(result).isEqualTo("Category deleted successfully");
+        verify(categoriesRepository).deleteById(categoryId);
+        verify(categoryCatalog).removed(categoryId);
+    }
+
+    private static CategoryCatalog.Snapshot catalogOf(CategoriesResponseDTO... categories) {
+        return CategoryCatalog.Snapshot.of(1, List.of(categories), new ObjectMapper());
+    }
 }
@@ -0,0 +1,92 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.leaderboard.LeaderboardEntryDTO;
+import com.example.apitask.dtos.leaderboard.LeaderboardRow;
+import com.example.apitask.repositories.UsersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class LeaderboardServiceTest {
+
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private UsersRepository usersRepository;
+
+    private final LeaderboardRow ana = row("ana", 9);
+    private final LeaderboardRow bia = row("bia", 7);
+    private final LeaderboardRow caio = row("caio", 7);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        leaderboardService = new LeaderboardService(usersRepository, 3);
+        when(usersRepository.findLeaders(PageRequest.of(0, 3))).thenReturn(List.of(ana, bia, caio));
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    void shouldRankTiesTogetherAfterRebuild() {
+        List<LeaderboardEntryDTO> top = leaderboardService.top(10);
+
+        assertThat(top.get(0).username()).isEqualTo("ana");
+        assertThat(top).extracting(LeaderboardEntryDTO::rank).containsExactly(1L, 2L, 2L);
+        assertThat(leaderboardService.top(1)).hasSize(1);
+    }
+
+    @Test
+    void shouldApplyIncrementsWithoutReadingTheDatabase() {
+        LeaderboardRow davi = row("davi", 10);
+
+        leaderboardService.update(bia.userId(), bia.email(), 10);
+        leaderboardService.update(davi.userId(), davi.email(), 10);
+
+        assertThat(leaderboardService.top(3)).extracting(LeaderboardEntryDTO::username)
+                .containsExactlyInAnyOrder("bia", "davi", "ana");
+        assertThat(leaderboardService.rankOf(ana.userId()).orElseThrow().rank()).isEqualTo(3);
+        verify(usersRepository, times(1)).findLeaders(any());
+    }
+
+    @Test
+    void shouldReloadWhenMemberOfFullBoardDrops() {
+        LeaderboardRow davi = row("davi", 5);
+        when(usersRepository.findLeaders(PageRequest.of(0, 3))).thenReturn(List.of(bia, caio, davi));
+
+        leaderboardService.update(ana.userId(), ana.email(), 1);
+
+        assertThat(leaderboardService.top(3)).extracting(LeaderboardEntryDTO::username).contains("davi").doesNotContain("ana");
+        verify(usersRepository, times(2)).findLeaders(any());
+    }
+
+    @Test
+    void shouldRankUsersOutsideTheBoardByCounting() {
+        LeaderboardRow outsider = row("eva", 2);
+        when(usersRepository.findLeaderboardRowByUsersId(outsider.userId())).thenReturn(Optional.of(outsider));
+        when(usersRepository.countByPointersGreaterThan(2)).thenReturn(5L);
+
+        LeaderboardEntryDTO entry = leaderboardService.rankOf(outsider.userId()).orElseThrow();
+
+        assertThat(entry.rank()).isEqualTo(6);
+        assertThat(entry.pointers()).isEqualTo(2);
+    }
+
+    private static LeaderboardRow row(String name, int pointers) {
+        return new LeaderboardRow(UUID.nameUUIDFromBytes(name.getBytes()), name + "@gmail.com", pointers);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.apitask.services;
+
+import com.example.apitask.repositories.UsersRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class StreakResetServiceTest {
+
+    private StreakResetService streakResetService;
+
+    @Mock
+    private UsersRepository usersRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        streakResetService = new StreakResetService(usersRepository, leaderboardService, transactionManager, 2, meterRegistry);
+    }
+
+    @Test
+    void shouldResetEachIdRangeWithYesterdayAsCutoff() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        UUID first = new UUID(0L, 0L);
+        UUID firstEnd = new UUID(0L, 2L);
+        UUID secondEnd = new UUID(0L, 3L);
+        when(usersRepository.findIdRangeEnd(first, 2)).thenReturn(firstEnd);
+        when(usersRepository.findIdRangeEnd(firstEnd, 2)).thenReturn(secondEnd);
+        when(usersRepository.findIdRangeEnd(secondEnd, 2)).thenReturn(null);
+        when(usersRepository.resetExpiredStreaks(first, firstEnd, today.minusDays(1))).thenReturn(2);
+        when(usersRepository.resetExpiredStreaks(firstEnd, secondEnd, today.minusDays(1))).thenReturn(1);
+
+        int reset = streakResetService.resetExpiredStreaks(today);
+
+        assertThat(reset).isEqualTo(3);
+        assertThat(meterRegistry.get("streak.reset.rows").counter().count()).isEqualTo(3.0);
+        verify(usersRepository, times(2)).resetExpiredStreaks(any(), any(), any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(leaderboardService).rebuild();
+    }
+
+    @Test
+    void shouldDoNothingWithoutUsers() {
+        when(usersRepository.findIdRangeEnd(any(), anyInt())).thenReturn(null);
+
+        int reset = streakResetService.resetExpiredStreaks(LocalDate.now());
+
+        assertThat(reset).isZero();
+        verify(usersRepository, never()).resetExpiredStreaks(any(), any(), any());
+        verifyNoInteractions(leaderboardService);
+    }
+}
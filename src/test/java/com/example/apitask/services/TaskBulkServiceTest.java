@@ -0,0 +1,92 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TasksBulkResponseDTO;
+import com.example.apitask.dtos.tasks.TasksRequestDTO;
+import com.example.apitask.exceptions.BulkLimitExceededException;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.example.apitask.repositories.TasksBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class TaskBulkServiceTest {
+
+    private TaskBulkService taskBulkService;
+
+    @Mock
+    private TasksBulkRepository tasksBulkRepository;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private CategoriesRepository categoriesRepository;
+
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    private final UserFactory usersFactory = new UserFactory();
+
+    private final UUID categoryId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        taskBulkService = new TaskBulkService(tasksBulkRepository, tokenService, categoriesRepository, taskCountCache, 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldInsertValidItemsInOneBatchAndReportRejectedOnes() {
+        Users currentUser = usersFactory.createUser(1);
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        UUID deletedCategoryId = UUID.randomUUID();
+        when(categoriesRepository.lockExistingIds(Set.of(categoryId, deletedCategoryId))).thenReturn(Set.of(categoryId));
+        List<TasksRequestDTO> requests = List.of(
+                new TasksRequestDTO("Task 1", "Description 1", LocalDate.now().plusDays(1), Set.of(categoryId)),
+                new TasksRequestDTO("Task 2", "Description 2", LocalDate.now().plusDays(2), Set.of(deletedCategoryId)),
+                new TasksRequestDTO(" ", "Description 3", LocalDate.now().plusDays(3), null)
+        );
+
+        TasksBulkResponseDTO response = taskBulkService.createTasks(requests);
+
+        ArgumentCaptor<List<TasksBulkRepository.NewTask>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(tasksBulkRepository).insert(eq(currentUser.getId()), inserted.capture());
+        assertThat(inserted.getValue()).hasSize(1);
+        assertThat(inserted.getValue().get(0).categoryIds()).containsExactly(categoryId);
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.results().get(0).id()).isEqualTo(inserted.getValue().get(0).id());
+        assertThat(response.results().get(1).error()).isEqualTo("category not found");
+        assertThat(response.results().get(2).error()).startsWith("name is required");
+        verify(taskCountCache).invalidateUser(currentUser.getId());
+    }
+
+    @Test
+    void shouldRejectRequestsOverTheLimit() {
+        List<TasksRequestDTO> requests = Collections.nCopies(4, new TasksRequestDTO("Task", "Description", LocalDate.now(), Set.of()));
+
+        assertThatThrownBy(() -> taskBulkService.createTasks(requests)).isInstanceOf(BulkLimitExceededException.class);
+        verifyNoInteractions(tasksBulkRepository);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.apitask.services;
+
+import com.example.apitask.config.ClockConfig;
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.mappers.CategoriesMapper;
+import com.example.apitask.mappers.TasksMapper;
+import com.example.apitask.models.Tasks;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.TasksRepository;
+import com.example.apitask.repositories.UsersRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Toggles the same tasks from many threads at once, each call in its own committed transaction, and
+ * checks that every task is completed once and every user gets exactly one point for the day.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TaskService.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskCompletionConcurrencyTest {
+    private static final int USERS = 4;
+    private static final int TASKS_PER_USER = 10;
+    private static final int TOGGLES_PER_TASK = 4;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private Clock clock;
+
+    @MockitoBean
+    private TokenService tokenService;
+
+    @MockitoBean
+    private TasksMapper tasksMapper;
+
+    @MockitoBean
+    private CategoriesMapper categoriesMapper;
+
+    @MockitoBean
+    private TaskCountCache taskCountCache;
+
+    @MockitoBean
+    private CategoryCatalog categoryCatalog;
+
+    @MockitoBean
+    private LeaderboardService leaderboardService;
+
+    private final ThreadLocal<Users> currentUser = new ThreadLocal<>();
+
+    @AfterEach
+    void tearDown() {
+        tasksRepository.deleteAll();
+        usersRepository.deleteAll();
+    }
+
+    @Test
+    void shouldAwardOnePointPerUserUnderParallelToggles() throws Exception {
+        List<Users> users = new ArrayList<>();
+        List<Callable<Boolean>> toggles = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            Users user = new Users();
+            user.setEmail("user" + u + "@example.com");
+            user.setPassword("123456");
+            user.setRole(UsersRole.USER);
+            user.setPointers(5);
+            user.setStreakData(LocalDate.now(clock).minusDays(1));
+            usersRepository.save(user);
+            users.add(user);
+            for (int t = 0; t < TASKS_PER_USER; t++) {
+                Tasks task = new Tasks();
+                task.setName("Task " + t);
+                task.setDescription("Concurrent");
+                task.setDateExpiration(LocalDate.now(clock));
+                task.setUsers(user);
+                tasksRepository.save(task);
+                for (int i = 0; i < TOGGLES_PER_TASK; i++) {
+                    toggles.add(() -> {
+                        currentUser.set(user);
+                        return taskService.tasksCompleted(task.getId()).firstTaskToday();
+                    });
+                }
+            }
+        }
+        when(tokenService.getCurrentUser()).thenAnswer(invocation -> currentUser.get());
+        Collections.shuffle(toggles);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Callable<Boolean> toggle : toggles) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return toggle.call();
+            }));
+        }
+        start.countDown();
+        int firstOfDay = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                firstOfDay++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(firstOfDay).isEqualTo(USERS);
+        assertThat(tasksRepository.findAll()).allMatch(Tasks::getCompleted)
+                .allMatch(task -> LocalDate.now(clock).equals(task.getDateConclusion()));
+        for (Users user : users) {
+            assertThat(usersRepository.findPointersByUsersId(user.getId())).isEqualTo(6);
+        }
+    }
+}
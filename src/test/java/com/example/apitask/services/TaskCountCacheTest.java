@@ -0,0 +1,61 @@
+package com.example.apitask.services;
+
+import com.example.apitask.enums.TaskListFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskCountCacheTest {
+
+    private TaskCountCache taskCountCache;
+
+    @BeforeEach
+    void setUp() {
+        taskCountCache = new TaskCountCache(100, 60);
+    }
+
+    @Test
+    void shouldCountOncePerUserAndFilterUntilInvalidated() {
+        UUID userId = UUID.randomUUID();
+        AtomicInteger counts = new AtomicInteger();
+
+        assertThat(taskCountCache.get(userId, TaskListFilter.ALL, () -> counts.incrementAndGet() * 10L)).isEqualTo(10L);
+        assertThat(taskCountCache.get(userId, TaskListFilter.ALL, () -> counts.incrementAndGet() * 10L)).isEqualTo(10L);
+        assertThat(taskCountCache.get(userId, TaskListFilter.PENDING, () -> counts.incrementAndGet() * 10L)).isEqualTo(20L);
+
+        taskCountCache.invalidateUser(userId);
+
+        assertThat(taskCountCache.get(userId, TaskListFilter.ALL, () -> counts.incrementAndGet() * 10L)).isEqualTo(30L);
+    }
+
+    @Test
+    void shouldOnlyDropTheInvalidatedUsersCounts() {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        taskCountCache.get(userId, TaskListFilter.ALL, () -> 1L);
+        taskCountCache.get(otherUserId, TaskListFilter.ALL, () -> 2L);
+
+        taskCountCache.invalidateUser(userId);
+
+        assertThat(taskCountCache.get(userId, TaskListFilter.ALL, () -> 3L)).isEqualTo(3L);
+        assertThat(taskCountCache.get(otherUserId, TaskListFilter.ALL, () -> 4L)).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldNotCacheCountTakenBeforeConcurrentInvalidation() {
+        UUID userId = UUID.randomUUID();
+
+        long stale = taskCountCache.get(userId, TaskListFilter.ALL, () -> {
+            // a task write commits and invalidates the user while this count is running
+            taskCountCache.invalidateUser(userId);
+            return 5L;
+        });
+
+        assertThat(stale).isEqualTo(5L);
+        assertThat(taskCountCache.get(userId, TaskListFilter.ALL, () -> 6L)).isEqualTo(6L);
+    }
+}
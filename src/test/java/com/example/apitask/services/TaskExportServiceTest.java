@@ -0,0 +1,120 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskExportRow;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.enums.UsersRole;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.TasksRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class TaskExportServiceTest {
+
+    private TaskExportService taskExportService;
+
+    @Mock
+    private TasksRepository tasksRepository;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final UserFactory userFactory = new UserFactory();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        JsonMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        taskExportService = new TaskExportService(tasksRepository, tokenService, objectMapper, transactionManager);
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        Users user = userFactory.createUser();
+        when(tokenService.getCurrentUser()).thenReturn(user);
+        when(tasksRepository.streamForExport(user.getId(), false, null, null))
+                .thenReturn(Stream.of(row("first", "plain"), row("second", "with \"quotes\"")));
+
+        String body = write(taskExportService.export(TaskExportFormat.NDJSON, false, null, null, false));
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"name\":\"first\"", "\"dateExpiration\":\"2026-01-10\"", "\"dateConclusion\":null");
+        assertThat(lines[1]).contains("\"description\":\"with \\\"quotes\\\"\"");
+        assertThat(body).endsWith("\n");
+    }
+
+    @Test
+    void shouldWriteCsvWithHeaderAndQuotedFields() throws Exception {
+        Users user = userFactory.createUser();
+        TaskExportRow row = row("first", "one, two");
+        when(tokenService.getCurrentUser()).thenReturn(user);
+        when(tasksRepository.streamForExport(user.getId(), null, null, null)).thenReturn(Stream.of(row));
+
+        String body = write(taskExportService.export(TaskExportFormat.CSV, null, null, null, false));
+
+        assertThat(body).isEqualTo("id,userId,name,description,completed,dateCreation,dateConclusion,dateExpiration\n"
+                + row.id() + "," + row.userId() + ",first,\"one, two\",false,2026-01-01,,2026-01-10\n");
+    }
+
+    @Test
+    void shouldExportEveryUserForAdmins() throws Exception {
+        Users admin = userFactory.createUser();
+        admin.setRole(UsersRole.ADMIN);
+        when(tokenService.getCurrentUser()).thenReturn(admin);
+        when(tasksRepository.streamForExport(null, null, null, null)).thenReturn(Stream.empty());
+
+        String body = write(taskExportService.export(TaskExportFormat.NDJSON, null, null, null, true));
+
+        assertThat(body).isEmpty();
+        verify(tasksRepository).streamForExport(null, null, null, null);
+    }
+
+    @Test
+    void shouldRejectExportOfEveryUserForNonAdmins() {
+        when(tokenService.getCurrentUser()).thenReturn(userFactory.createUser());
+
+        assertThrows(AccessDeniedException.class, () -> taskExportService.export(TaskExportFormat.NDJSON, null, null, null, true));
+        verifyNoInteractions(tasksRepository);
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static TaskExportRow row(String name, String description) {
+        return new TaskExportRow(UUID.nameUUIDFromBytes(name.getBytes()), UUID.nameUUIDFromBytes("user".getBytes()), name, description,
+                false, LocalDate.of(2026, 1, 1), null, LocalDate.of(2026, 1, 10));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskImportReportDTO;
+import com.example.apitask.enums.TaskExportFormat;
+import com.example.apitask.exceptions.InvalidImportException;
+import com.example.apitask.factories.UserFactory;
+import com.example.apitask.infra.security.TokenService;
+import com.example.apitask.models.Users;
+import com.example.apitask.repositories.CategoriesRepository;
+import com.example.apitask.repositories.TasksBulkRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class TaskImportServiceTest {
+
+    private TaskImportService taskImportService;
+
+    @Mock
+    private TasksBulkRepository tasksBulkRepository;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private CategoriesRepository categoriesRepository;
+
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final UserFactory userFactory = new UserFactory();
+
+    private final UUID categoryId = UUID.randomUUID();
+
+    private Users currentUser;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        taskImportService = new TaskImportService(tasksBulkRepository, tokenService, categoriesRepository, taskCountCache,
+                JsonMapper.builder().findAndAddModules().build(), transactionManager, 2, 10, 1, 200);
+        currentUser = userFactory.createUser();
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        lenient().when(categoriesRepository.lockExistingIds(any())).thenReturn(Set.of(categoryId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCommitNdjsonRowsInBatchesAndReportRejects() {
+        String body = """
+                {"name":"Task 1","description":"First","dateExpiration":"2026-01-01","categoryIds":["%s"]}
+                {"name":"Task 2","description":"Second","dateExpiration":"2026-01-02"}
+                not json
+
+                {"name":"Task 3","description":"Third","dateExpiration":"2026-01-03","categoryIds":["%s"]}
+                {"name":"Task 4","description":"Fourth","dateExpiration":"2026-01-04"}
+                """.formatted(categoryId, UUID.randomUUID());
+
+        TaskImportReportDTO report = taskImportService.importTasks(stream(body), TaskExportFormat.NDJSON, 0, null);
+
+        ArgumentCaptor<List<TasksBulkRepository.NewTask>> batches = ArgumentCaptor.forClass(List.class);
+        verify(tasksBulkRepository, times(2)).insert(eq(currentUser.getId()), batches.capture());
+        assertThat(batches.getAllValues().get(0)).extracting(TasksBulkRepository.NewTask::name).containsExactly("Task 1", "Task 2");
+        assertThat(batches.getAllValues().get(1)).extracting(TasksBulkRepository.NewTask::name).containsExactly("Task 4");
+        assertThat(report.completed()).isTrue();
+        assertThat(report.rowsRead()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.checkpoint()).isEqualTo(5);
+        assertThat(report.rejects()).hasSize(1);
+        assertThat(report.rejects().get(0).row()).isEqualTo(3);
+        assertThat(report.rejects().get(0).error()).startsWith("malformed JSON");
+        verify(taskCountCache, times(2)).invalidateUser(currentUser.getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReadQuotedCsvFieldsByHeaderName() {
+        String body = "id,name,description,dateExpiration,categoryIds\r\n"
+                + "x,\"Buy milk, eggs\",\"Say \"\"hi\"\"\nthen leave\",2026-01-01," + categoryId + "\r\n"
+                + "y,Task,Desc,tomorrow,\n";
+
+        TaskImportReportDTO report = taskImportService.importTasks(stream(body), TaskExportFormat.CSV, 0, null);
+
+        ArgumentCaptor<List<TasksBulkRepository.NewTask>> batch = ArgumentCaptor.forClass(List.class);
+        verify(tasksBulkRepository).insert(eq(currentUser.getId()), batch.capture());
+        TasksBulkRepository.NewTask task = batch.getValue().get(0);
+        assertThat(task.name()).isEqualTo("Buy milk, eggs");
+        assertThat(task.description()).isEqualTo("Say \"hi\"\nthen leave");
+        assertThat(task.dateExpiration()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(task.categoryIds()).containsExactly(categoryId);
+        assertThat(report.rejects().get(0).error()).isEqualTo("dateExpiration must be an ISO date");
+    }
+
+    @Test
+    void shouldStopAtLastCommittedRowAndResumeFromCheckpoint() {
+        String body = """
+                {"name":"Task 1","description":"First","dateExpiration":"2026-01-01"}
+                {"name":"Task 2","description":"Second","dateExpiration":"2026-01-02"}
+                {"name":"Task 3","description":"Third","dateExpiration":"2026-01-03"}
+                """;
+        doNothing()
+                .doThrow(new DataIntegrityViolationException("boom"))
+                .doNothing()
+                .when(tasksBulkRepository).insert(any(), anyList());
+
+        TaskImportReportDTO failed = taskImportService.importTasks(stream(body), TaskExportFormat.NDJSON, 0, null);
+        TaskImportReportDTO resumed = taskImportService.importTasks(stream(body), TaskExportFormat.NDJSON, failed.checkpoint(), null);
+
+        assertThat(failed.completed()).isFalse();
+        assertThat(failed.imported()).isEqualTo(2);
+        assertThat(failed.checkpoint()).isEqualTo(2);
+        assertThat(failed.failure()).contains("row 2");
+        assertThat(resumed.completed()).isTrue();
+        assertThat(resumed.imported()).isEqualTo(1);
+        assertThat(resumed.checkpoint()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRejectRowsOverTheLengthLimitWithoutStoppingTheImport() {
+        String longName = "x".repeat(500);
+        String ndjson = "{\"name\":\"" + longName + "\",\"description\":\"Long\",\"dateExpiration\":\"2026-01-01\"}\n"
+                + "{\"name\":\"Task 2\",\"description\":\"Second\",\"dateExpiration\":\"2026-01-02\"}\n";
+        String csv = "name,description,dateExpiration\n"
+                + "\"" + "a\n".repeat(150) + "\",Long,2026-01-01\n"
+                + "Task 2,Second,2026-01-02\n";
+
+        TaskImportReportDTO fromNdjson = taskImportService.importTasks(stream(ndjson), TaskExportFormat.NDJSON, 0, null);
+        TaskImportReportDTO fromCsv = taskImportService.importTasks(stream(csv), TaskExportFormat.CSV, 0, null);
+
+        ArgumentCaptor<List<TasksBulkRepository.NewTask>> batches = ArgumentCaptor.forClass(List.class);
+        verify(tasksBulkRepository, times(2)).insert(eq(currentUser.getId()), batches.capture());
+        assertThat(batches.getAllValues()).allSatisfy(batch ->
+                assertThat(batch).extracting(TasksBulkRepository.NewTask::name).containsExactly("Task 2"));
+        assertThat(fromNdjson.rejects().get(0).row()).isEqualTo(1);
+        assertThat(fromNdjson.rejects().get(0).error()).isEqualTo("row is longer than 200 characters");
+        assertThat(fromCsv.rejects().get(0).row()).isEqualTo(1);
+        assertThat(fromCsv.rejects().get(0).error()).isEqualTo("row is longer than 200 characters");
+    }
+
+    @Test
+    void shouldRejectRowsWhoseCategoryIsGoneWhenTheBatchCommits() {
+        UUID deleted = UUID.randomUUID();
+        String body = """
+                {"name":"Task 1","description":"First","dateExpiration":"2026-01-01","categoryIds":["%s"]}
+                {"name":"Task 2","description":"Second","dateExpiration":"2026-01-02","categoryIds":["%s"]}
+                """.formatted(deleted, categoryId);
+
+        TaskImportReportDTO report = taskImportService.importTasks(stream(body), TaskExportFormat.NDJSON, 0, null);
+
+        verify(categoriesRepository).lockExistingIds(Set.of(deleted, categoryId));
+        assertThat(report.completed()).isTrue();
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.rejects().get(0).row()).isEqualTo(1);
+        assertThat(report.rejects().get(0).error()).isEqualTo("category not found");
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> taskImportService.importTasks(stream("title,notes\n"), TaskExportFormat.CSV, 0, null))
+                .isInstanceOf(InvalidImportException.class);
+        verifyNoInteractions(tasksBulkRepository);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
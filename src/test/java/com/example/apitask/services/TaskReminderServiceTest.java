@@ -0,0 +1,155 @@
+package com.example.apitask.services;
+
+import com.example.apitask.dtos.tasks.TaskReminderRow;
+import com.example.apitask.email.EmailPublisher;
+import com.example.apitask.enums.ReminderMode;
+import com.example.apitask.repositories.TaskRemindersRepository;
+import com.example.apitask.repositories.TasksRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MockitoExtension.class)
+public class TaskReminderServiceTest {
+
+    private TaskReminderService taskReminderService;
+
+    @Mock
+    private TasksRepository tasksRepository;
+
+    @Mock
+    private TaskRemindersRepository taskRemindersRepository;
+
+    @Mock
+    private EmailPublisher emailPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        lenient().when(emailPublisher.sendTaskEmail(any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(emailPublisher.sendTaskDigest(any())).thenReturn(CompletableFuture.completedFuture(null));
+        taskReminderService = new TaskReminderService(tasksRepository, taskRemindersRepository, emailPublisher, entityManager, transactionManager, 2, ReminderMode.PER_TASK, 1_000);
+    }
+
+    @Test
+    void shouldSendAndRecordRemindersChunkByChunk() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<TaskReminderRow> rows = IntStream.range(0, 3)
+                .mapToObj(i -> row("task-" + i, "user" + i, tomorrow))
+                .toList();
+        UUID firstId = new UUID(0L, 0L);
+
+        when(tasksRepository.streamDueWithoutReminder(tomorrow, firstId, 2)).thenReturn(rows.subList(0, 2).stream());
+        when(tasksRepository.streamDueWithoutReminder(tomorrow, rows.get(1).taskId(), 2)).thenReturn(rows.subList(2, 3).stream());
+
+        int sent = taskReminderService.sendDueReminders(tomorrow);
+
+        assertThat(sent).isEqualTo(3);
+        rows.forEach(row -> verify(emailPublisher).sendTaskEmail(row));
+        verify(taskRemindersRepository).recordSent(eq(List.of(rows.get(0).taskId(), rows.get(1).taskId())), any());
+        verify(taskRemindersRepository).recordSent(eq(List.of(rows.get(2).taskId())), any());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void shouldOnlyRecordRemindersTheBrokerConfirmed() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        TaskReminderRow confirmed = row("task-1", "user1", tomorrow);
+        TaskReminderRow dropped = row("task-2", "user2", tomorrow);
+        UUID firstId = new UUID(0L, 0L);
+
+        when(tasksRepository.streamDueWithoutReminder(tomorrow, firstId, 2)).thenReturn(Stream.of(confirmed, dropped));
+        when(emailPublisher.sendTaskEmail(dropped)).thenReturn(CompletableFuture.failedFuture(new AmqpException("Email queue is full")));
+
+        int sent = taskReminderService.sendDueReminders(tomorrow);
+
+        assertThat(sent).isEqualTo(1);
+        verify(taskRemindersRepository).recordSent(eq(List.of(confirmed.taskId())), any());
+        verify(tasksRepository, times(1)).streamDueWithoutReminder(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldNotRecordAnythingWhenNoTaskIsDue() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        when(tasksRepository.streamDueWithoutReminder(any(), any(), anyInt())).thenReturn(Stream.empty());
+
+        int sent = taskReminderService.sendDueReminders(tomorrow);
+
+        assertThat(sent).isEqualTo(0);
+        verifyNoInteractions(emailPublisher, taskRemindersRepository);
+    }
+
+    @Test
+    void shouldSendOneDigestPerUserAndHoldBackTrailingGroupOfFullChunk() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        TaskReminderService digestService = new TaskReminderService(tasksRepository, taskRemindersRepository, emailPublisher, entityManager, transactionManager, 3, ReminderMode.DIGEST, 1_000);
+        TaskReminderRow first = row("task-1", "user-a", tomorrow);
+        TaskReminderRow second = row("task-2", "user-a", tomorrow);
+        TaskReminderRow third = row("task-3", "user-b", tomorrow);
+        TaskReminderRow fourth = row("task-4", "user-b", tomorrow);
+        UUID firstId = new UUID(0L, 0L);
+
+        when(tasksRepository.streamDueWithoutReminderByUser(tomorrow, firstId, 3)).thenReturn(Stream.of(first, second, third));
+        when(tasksRepository.streamDueWithoutReminderByUser(tomorrow, first.userId(), 3)).thenReturn(Stream.of(third, fourth));
+
+        int sent = digestService.sendDueReminders(tomorrow);
+
+        assertThat(sent).isEqualTo(4);
+        verify(emailPublisher).sendTaskDigest(List.of(first, second));
+        verify(emailPublisher).sendTaskDigest(List.of(third, fourth));
+        verify(emailPublisher, never()).sendTaskEmail(any());
+        verify(taskRemindersRepository).recordSent(eq(List.of(first.taskId(), second.taskId())), any());
+        verify(taskRemindersRepository).recordSent(eq(List.of(third.taskId(), fourth.taskId())), any());
+    }
+
+    @Test
+    void shouldSplitDigestOfUserWithMoreTasksThanChunkSize() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        TaskReminderService digestService = new TaskReminderService(tasksRepository, taskRemindersRepository, emailPublisher, entityManager, transactionManager, 2, ReminderMode.DIGEST, 1_000);
+        TaskReminderRow first = row("task-1", "user-a", tomorrow);
+        TaskReminderRow second = row("task-2", "user-a", tomorrow);
+        TaskReminderRow third = row("task-3", "user-a", tomorrow);
+        UUID firstId = new UUID(0L, 0L);
+
+        when(tasksRepository.streamDueWithoutReminderByUser(tomorrow, firstId, 2))
+                .thenReturn(Stream.of(first, second))
+                .thenReturn(Stream.of(third));
+
+        int sent = digestService.sendDueReminders(tomorrow);
+
+        assertThat(sent).isEqualTo(3);
+        verify(emailPublisher).sendTaskDigest(List.of(first, second));
+        verify(emailPublisher).sendTaskDigest(List.of(third));
+    }
+
+    private static TaskReminderRow row(String task, String user, LocalDate dueDate) {
+        return new TaskReminderRow(UUID.nameUUIDFromBytes(task.getBytes()), UUID.nameUUIDFromBytes(user.getBytes()), user + "@gmail.com", task, dueDate);
+    }
+}
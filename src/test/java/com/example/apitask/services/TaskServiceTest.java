@@ -1,9 +1,17 @@
 package com.example.apitask.services;
 
 import com.example.apitask.dtos.categories.CategoriesResponseDTO;
+import com.example.apitask.dtos.tasks.TaskCategoryRow;
+import com.example.apitask.dtos.tasks.TaskCursor;
+import com.example.apitask.dtos.tasks.TaskRow;
 import com.example.apitask.dtos.tasks.TasksRequestDTO;
 import com.example.apitask.dtos.tasks.TasksResponseDTO;
+import com.example.apitask.dtos.users.UsersStreakRow;
+import com.example.apitask.dtos.tasks.TasksWindowDTO;
+import com.example.apitask.enums.TaskListFilter;
 import com.example.apitask.exceptions.Authorization;
+import com.example.apitask.exceptions.InvalidCursorException;
+import com.example.apitask.exceptions.InvalidPageSizeException;
 import com.example.apitask.exceptions.ResourceNotFoundException;
 import com.example.apitask.factories.CategoryFactory;
 import com.example.apitask.factories.TaskFactory;
@@ -17,18 +25,27 @@ import com.example.apitask.models.Users;
 import com.example.apitask.repositories.CategoriesRepository;
 import com.example.apitask.repositories.TasksRepository;
 import com.example.apitask.repositories.UsersRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,6 +53,7 @@ import java.util.stream.Collectors;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -59,9 +77,18 @@ public class TaskServiceTest {
     @Mock
     private UsersRepository usersRepository;
 
+    @Mock
+    private LeaderboardService leaderboardService;
+
     @Mock
     private CategoriesMapper categoriesMapper;
 
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    @Mock
+    private CategoryCatalog categoryCatalog;
+
     private TaskFactory taskFactory;
     private UserFactory usersFactory;
     private CategoryFactory categoryFactory;
@@ -70,7 +97,7 @@ public class TaskServiceTest {
     void setUp() {
         //Procure nessa class(this) todos os campos que tem a nomenclatura de @Mock e inicialize ele!
         MockitoAnnotations.openMocks(this);
-        taskService = new TaskService(tasksRepository, tasksMapper, tokenService, categoriesRepository, usersRepository, categoriesMapper);
+        taskService = new TaskService(tasksRepository, tasksMapper, tokenService, categoriesRepository, usersRepository, categoriesMapper, taskCountCache, categoryCatalog, leaderboardService, 100, Clock.systemDefaultZone());
         taskFactory = new TaskFactory();
         usersFactory = new UserFactory();
         categoryFactory = new CategoryFactory();
@@ -94,7 +121,9 @@ public class TaskServiceTest {
         TasksResponseDTO responseDTO = taskFactory.createTaskResponse(1);
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(categoriesRepository.findById(category.getId())).thenReturn(Optional.of(category));
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(category));
+        when(categoriesRepository.getReferenceById(category.getId())).thenReturn(category);
+        when(usersRepository.getReferenceById(currentUser.getId())).thenReturn(currentUser);
         when(tasksMapper.toEntity(requestDTO)).thenReturn(taskEntity);
         when(tasksMapper.toDTO(taskEntity)).thenReturn(responseDTO);
 
@@ -123,14 +152,72 @@ public class TaskServiceTest {
         );
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(categoriesRepository.findById(nonExistentCategoryId)).thenReturn(Optional.empty());
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(categoryFactory.createCategory(1)));
 
         assertThatThrownBy(() -> taskService.createTask(requestDTO))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("category not found");
 
-        verify(categoriesRepository, times(1)).findById(nonExistentCategoryId);
-        verifyNoMoreInteractions(tasksRepository, tasksMapper);
+        verify(categoriesRepository).existsById(nonExistentCategoryId);
+        verifyNoMoreInteractions(categoriesRepository, tasksRepository, tasksMapper);
+    }
+
+    @Test
+    void shouldAcceptCategoryMissingFromStaleSnapshot() {
+        Users currentUser = usersFactory.createUser(1);
+        Categories category = categoryFactory.createCategory(2);
+        TasksRequestDTO requestDTO = new TasksRequestDTO("Task 1", "Description for task 1", LocalDate.now().plusDays(1), Set.of(category.getId()));
+        Tasks taskEntity = taskFactory.createTask(1);
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(categoryFactory.createCategory(1)));
+        when(categoriesRepository.existsById(category.getId())).thenReturn(true);
+        when(categoriesRepository.getReferenceById(category.getId())).thenReturn(category);
+        when(tasksMapper.toEntity(requestDTO)).thenReturn(taskEntity);
+
+        taskService.createTask(requestDTO);
+
+        assertThat(taskEntity.getCategories()).isEqualTo(Set.of(category));
+        verify(tasksRepository).save(taskEntity);
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenCategoryIsDeletedBeforeTheTaskIsSaved() {
+        Users currentUser = usersFactory.createUser(1);
+        Categories category = categoryFactory.createCategory(1);
+        TasksRequestDTO requestDTO = new TasksRequestDTO("Task 1", "Description for task 1", LocalDate.now().plusDays(1), Set.of(category.getId()));
+        Tasks taskEntity = taskFactory.createTask(1);
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(category));
+        when(categoriesRepository.getReferenceById(category.getId())).thenReturn(category);
+        when(tasksMapper.toEntity(requestDTO)).thenReturn(taskEntity);
+        when(tasksRepository.save(taskEntity)).thenThrow(new DataIntegrityViolationException("fk_tasks_categories"));
+        when(categoriesRepository.existsById(category.getId())).thenReturn(false);
+
+        assertThatThrownBy(() -> taskService.createTask(requestDTO))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("category not found");
+        verifyNoInteractions(taskCountCache);
+    }
+
+    @Test
+    void shouldPropagateIntegrityViolationNotCausedByAMissingCategory() {
+        Users currentUser = usersFactory.createUser(1);
+        Categories category = categoryFactory.createCategory(1);
+        TasksRequestDTO requestDTO = new TasksRequestDTO("Task 1", "Description for task 1", LocalDate.now().plusDays(1), Set.of(category.getId()));
+        Tasks taskEntity = taskFactory.createTask(1);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("tasks_title_not_null");
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(categoryCatalog.snapshot()).thenReturn(catalogOf(category));
+        when(categoriesRepository.getReferenceById(category.getId())).thenReturn(category);
+        when(tasksMapper.toEntity(requestDTO)).thenReturn(taskEntity);
+        when(tasksRepository.save(taskEntity)).thenThrow(violation);
+        when(categoriesRepository.existsById(category.getId())).thenReturn(true);
+
+        assertThatThrownBy(() -> taskService.createTask(requestDTO)).isSameAs(violation);
+        verifyNoInteractions(taskCountCache);
     }
 
     @Test
@@ -231,42 +318,77 @@ public class TaskServiceTest {
     void shouldCompleteTaskSuccessfullyAndIncrementPointer() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        currentUser.setStreakData(null);
         Tasks task = taskFactory.createTask(1);
         task.setUsers(currentUser);
-        task.setCompleted(false);
+        task.setCompleted(true);
+        task.setDateConclusion(LocalDate.now());
         UUID taskId = task.getId();
-        TasksResponseDTO responseDTO = taskFactory.createTaskResponse(1);
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.markCompleted(taskId, currentUser.getId(), LocalDate.now())).thenReturn(1);
+        when(usersRepository.awardDailyPoint(currentUser.getId(), LocalDate.now(), LocalDate.now().minusDays(1))).thenReturn(1);
+        when(usersRepository.findStreakByUsersId(currentUser.getId())).thenReturn(Optional.of(new UsersStreakRow(11, LocalDate.now())));
         when(tasksRepository.findById(taskId)).thenReturn(Optional.of(task));
-        lenient().doAnswer(invocation -> {
-            Tasks t = invocation.getArgument(0);
-            boolean firstTaskFlag = invocation.getArgument(1);
-            return new TasksResponseDTO(
-                    t.getId(),
-                    t.getName(),
-                    t.getDescription(),
-                    t.getCompleted(),
-                    t.getDateCreation(),
-                    t.getDateConclusion(),
-                    t.getDateExpiration(),
-                    t.getCategories().stream()
-                            .map(cat -> new CategoriesResponseDTO(cat.getId(), cat.getName()))
-                            .collect(Collectors.toSet()),
-                    firstTaskFlag
-            );
-        }).when(tasksMapper).toDTO(any());
 
         // Act
         TasksResponseDTO result = taskService.tasksCompleted(taskId);
 
-        assertThat(task.getCompleted()).isTrue();
-        assertThat(task.getDateConclusion()).isEqualTo(LocalDate.now());
-        assertThat(currentUser.getPointers()).isEqualTo(11);
-        assertThat(currentUser.getStreakData()).isEqualTo(LocalDate.now());
-        verify(usersRepository, times(1)).save(currentUser);
-        verify(tasksRepository, times(1)).save(task);
+        verify(leaderboardService).update(currentUser.getId(), currentUser.getEmail(), 11);
+        assertThat(result.completed()).isTrue();
+        assertThat(result.dateConclusion()).isEqualTo(LocalDate.now());
+        assertThat(result.firstTaskToday()).isTrue();
+        verify(usersRepository, times(1)).awardDailyPoint(currentUser.getId(), LocalDate.now(), LocalDate.now().minusDays(1));
+        verify(taskCountCache, times(1)).invalidateUser(currentUser.getId());
+        verify(tasksRepository, never()).save(any());
+        verify(usersRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldUpdateLeaderboardAndCountsOnlyAfterCommit() {
+        Users currentUser = usersFactory.createUser(1);
+        Tasks task = taskFactory.createTask(1);
+        task.setUsers(currentUser);
+        task.setCompleted(true);
+        UUID taskId = task.getId();
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.markCompleted(taskId, currentUser.getId(), LocalDate.now())).thenReturn(1);
+        when(usersRepository.awardDailyPoint(currentUser.getId(), LocalDate.now(), LocalDate.now().minusDays(1))).thenReturn(1);
+        when(usersRepository.findStreakByUsersId(currentUser.getId())).thenReturn(Optional.of(new UsersStreakRow(11, LocalDate.now())));
+        when(tasksRepository.findById(taskId)).thenReturn(Optional.of(task));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            taskService.tasksCompleted(taskId);
+
+            verifyNoInteractions(leaderboardService, taskCountCache);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(leaderboardService).update(currentUser.getId(), currentUser.getEmail(), 11);
+        verify(taskCountCache).invalidateUser(currentUser.getId());
+    }
+
+    @Test
+    void shouldNotReportFirstTaskWhenStreakAlreadyExtendedToday() {
+        // Arrange
+        Users currentUser = usersFactory.createUser(1);
+        Tasks task = taskFactory.createTask(1);
+        task.setUsers(currentUser);
+        task.setCompleted(true);
+        UUID taskId = task.getId();
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.markCompleted(taskId, currentUser.getId(), LocalDate.now())).thenReturn(1);
+        when(usersRepository.awardDailyPoint(currentUser.getId(), LocalDate.now(), LocalDate.now().minusDays(1))).thenReturn(0);
+        when(tasksRepository.findById(taskId)).thenReturn(Optional.of(task));
+
+        // Act
+        TasksResponseDTO result = taskService.tasksCompleted(taskId);
+
+        assertThat(result.firstTaskToday()).isFalse();
     }
 
     @Test
@@ -279,6 +401,7 @@ public class TaskServiceTest {
         UUID taskId = task.getId();
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.markCompleted(taskId, currentUser.getId(), LocalDate.now())).thenReturn(0);
         when(tasksRepository.findById(taskId)).thenReturn(Optional.of(task));
 
         // Act & Assert
@@ -287,7 +410,6 @@ public class TaskServiceTest {
                 .hasMessage("You do not have permission to modify this task.");
 
         verify(tasksRepository, times(1)).findById(taskId);
-        verifyNoMoreInteractions(tasksRepository);
         verifyNoInteractions(usersRepository);
     }
 
@@ -295,9 +417,6 @@ public class TaskServiceTest {
     void shouldNotIncrementPointerIfTaskAlreadyCompleted() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        currentUser.setStreakData(LocalDate.now());
-        currentUser.setPointers(5);
-
         Tasks task = taskFactory.createTask(1);
         task.setUsers(currentUser);
         task.setCompleted(true);
@@ -305,16 +424,16 @@ public class TaskServiceTest {
         UUID taskId = task.getId();
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.markCompleted(taskId, currentUser.getId(), LocalDate.now())).thenReturn(0);
         when(tasksRepository.findById(taskId)).thenReturn(Optional.of(task));
 
         // Act
         TasksResponseDTO result = taskService.tasksCompleted(taskId);
 
-        assertThat(task.getCompleted()).isTrue();
-        assertThat(task.getDateConclusion()).isEqualTo(LocalDate.now());
-        assertThat(currentUser.getPointers()).isEqualTo(5); // não incrementou
-        verify(usersRepository, never()).save(currentUser); // não salva
-        verify(tasksRepository, times(1)).save(task);
+        assertThat(result.completed()).isTrue();
+        assertThat(result.dateConclusion()).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(result.firstTaskToday()).isFalse();
+        verifyNoInteractions(usersRepository, taskCountCache);
     }
 
     @Test
@@ -364,58 +483,45 @@ public class TaskServiceTest {
     void shouldReturnTasksForTodaySuccessfully() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
         LocalDate today = LocalDate.now();
-
-        Tasks task1 = taskFactory.createTask(1);
-        task1.setUsers(currentUser);
-        Tasks task2 = taskFactory.createTask(2);
-        task2.setUsers(currentUser);
-
-        List<Tasks> tasksList = List.of(task1, task2);
-        Page<Tasks> tasksPage = new PageImpl<>(tasksList);
+        TaskRow row1 = taskFactory.createTaskRow(1);
+        TaskRow row2 = taskFactory.createTaskRow(2);
+        CategoriesResponseDTO category = new CategoriesResponseDTO(UUID.randomUUID(), "Work");
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findTasksDueUpToDate(currentUser.getId(), today, PageRequest.of(page, size, Sort.by("dateExpiration").descending())))
-                .thenReturn(tasksPage);
-        // Simulando o mapeamento da página
-        when(tasksMapper.toDTO(task1)).thenReturn(taskFactory.createTaskResponse(1));
-        when(tasksMapper.toDTO(task2)).thenReturn(taskFactory.createTaskResponse(2));
+        when(tasksRepository.findRows(currentUser.getId(), TaskListFilter.DUE, today, 0, 2)).thenReturn(List.of(row1, row2));
+        when(tasksRepository.findCategoryRows(List.of(row1.id(), row2.id())))
+                .thenReturn(List.of(new TaskCategoryRow(row1.id(), category.id(), category.name())));
+        when(tasksRepository.countTasksDueUpToDate(currentUser.getId(), today)).thenReturn(5L);
+        when(tasksMapper.toDTO(row1, Set.of(category))).thenReturn(taskFactory.createTaskResponse(1));
+        when(tasksMapper.toDTO(row2, Set.of())).thenReturn(taskFactory.createTaskResponse(2));
 
         // Act
-        Page<TasksResponseDTO> result = taskService.hasTasksToday(page, size);
+        Page<TasksResponseDTO> result = taskService.hasTasksToday(0, 2);
 
-        assertThat(result.getContent().get(0).id()).isEqualTo(task1.getId());
-        assertThat(result.getContent().get(1).id()).isEqualTo(task2.getId());
+        assertThat(result.getContent().get(0).id()).isEqualTo(row1.id());
+        assertThat(result.getContent().get(1).id()).isEqualTo(row2.id());
+        assertThat(result.getTotalElements()).isEqualTo(5L);
 
         verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findTasksDueUpToDate(currentUser.getId(), today, PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verify(tasksMapper, times(1)).toDTO(task1);
-        verify(tasksMapper, times(1)).toDTO(task2);
+        verify(tasksRepository, times(1)).findCategoryRows(List.of(row1.id(), row2.id()));
     }
 
     @Test
     void shouldReturnEmptyPageWhenNoTasksForToday() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
         LocalDate today = LocalDate.now();
 
-        Page<Tasks> emptyTasksPage = new PageImpl<>(Collections.emptyList());
-
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findTasksDueUpToDate(currentUser.getId(), today, PageRequest.of(page, size, Sort.by("dateExpiration").descending())))
-                .thenReturn(emptyTasksPage);
+        when(tasksRepository.findRows(currentUser.getId(), TaskListFilter.DUE, today, 0, 2)).thenReturn(List.of());
 
         // Act
-        Page<TasksResponseDTO> result = taskService.hasTasksToday(page, size);
+        Page<TasksResponseDTO> result = taskService.hasTasksToday(0, 2);
 
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findTasksDueUpToDate(currentUser.getId(), today, PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
+        assertThat(result.getTotalElements()).isEqualTo(0L);
+        verify(tasksRepository, never()).findCategoryRows(any());
+        verify(tasksRepository, never()).countTasksDueUpToDate(any(), any());
         verifyNoInteractions(tasksMapper);
     }
 
@@ -423,65 +529,35 @@ public class TaskServiceTest {
     void shouldReturnPendingTasksSuccessfully() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
-
-        Tasks task1 = taskFactory.createTask(1);
-        task1.setUsers(currentUser);
-        task1.setCompleted(false);
-
-        Tasks task2 = taskFactory.createTask(2);
-        task2.setUsers(currentUser);
-        task2.setCompleted(false);
-
-        List<Tasks> tasksList = List.of(task1, task2);
-        Page<Tasks> tasksPage = new PageImpl<>(tasksList);
+        TaskRow row1 = taskFactory.createTaskRow(1);
+        TaskRow row3 = taskFactory.createTaskRow(3);
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findByUsersIdAndCompletedFalse(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(tasksPage);
-
-        when(tasksMapper.toDTO(task1)).thenReturn(taskFactory.createTaskResponse(1));
-        when(tasksMapper.toDTO(task2)).thenReturn(taskFactory.createTaskResponse(2));
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.PENDING), any(), eq(2L), eq(2))).thenReturn(List.of(row1, row3));
+        when(tasksRepository.countByUsersIdAndCompletedFalse(currentUser.getId())).thenReturn(6L);
+        when(tasksMapper.toDTO(row1, Set.of())).thenReturn(taskFactory.createTaskResponse(1));
+        when(tasksMapper.toDTO(row3, Set.of())).thenReturn(taskFactory.createTaskResponse(3));
 
         // Act
-        Page<TasksResponseDTO> result = taskService.existsTasksPending(page, size);
-
+        Page<TasksResponseDTO> result = taskService.existsTasksPending(1, 2);
 
-        assertThat(result.getContent().get(0).id()).isEqualTo(task1.getId());
-        assertThat(result.getContent().get(1).id()).isEqualTo(task2.getId());
-
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findByUsersIdAndCompletedFalse(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verify(tasksMapper, times(1)).toDTO(task1);
-        verify(tasksMapper, times(1)).toDTO(task2);
+        assertThat(result.getContent().get(0).id()).isEqualTo(row1.id());
+        assertThat(result.getContent().get(1).id()).isEqualTo(row3.id());
+        assertThat(result.getTotalElements()).isEqualTo(6L);
     }
 
     @Test
     void shouldReturnEmptyPageWhenNoPendingTasks() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
-
-        Page<Tasks> emptyTasksPage = new PageImpl<>(Collections.emptyList());
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findByUsersIdAndCompletedFalse(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(emptyTasksPage);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.PENDING), any(), eq(0L), eq(2))).thenReturn(List.of());
 
         // Act
-        Page<TasksResponseDTO> result = taskService.existsTasksPending(page, size);
-
+        Page<TasksResponseDTO> result = taskService.existsTasksPending(0, 2);
 
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findByUsersIdAndCompletedFalse(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
+        assertThat(result.getContent().isEmpty()).isTrue();
         verifyNoInteractions(tasksMapper);
     }
 
@@ -489,128 +565,166 @@ public class TaskServiceTest {
     void shouldReturnCompletedTasksSuccessfully() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
+        TaskRow row2 = taskFactory.createTaskRow(2);
+        TaskRow row4 = taskFactory.createTaskRow(4);
 
-        Tasks task1 = taskFactory.createTask(1);
-        task1.setUsers(currentUser);
-        task1.setCompleted(true);
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.COMPLETED), any(), eq(0L), eq(2))).thenReturn(List.of(row2, row4));
+        when(tasksRepository.countByUsersIdAndCompletedTrue(currentUser.getId())).thenReturn(3L);
+        when(tasksMapper.toDTO(row2, Set.of())).thenReturn(taskFactory.createTaskResponse(2));
+        when(tasksMapper.toDTO(row4, Set.of())).thenReturn(taskFactory.createTaskResponse(4));
 
-        Tasks task2 = taskFactory.createTask(2);
-        task2.setUsers(currentUser);
-        task2.setCompleted(true);
+        // Act
+        Page<TasksResponseDTO> result = taskService.existsTasksCompleted(0, 2);
 
-        List<Tasks> tasksList = List.of(task1, task2);
-        Page<Tasks> tasksPage = new PageImpl<>(tasksList);
+        assertThat(result.getContent().get(0).completed()).isTrue();
+        assertThat(result.getTotalElements()).isEqualTo(3L);
+    }
 
-        when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findByUsersIdAndCompletedTrue(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(tasksPage);
+    @Test
+    void shouldSkipCountWhenFirstPageIsNotFull() {
+        // Arrange
+        Users currentUser = usersFactory.createUser(1);
+        TaskRow row = taskFactory.createTaskRow(2);
 
-        when(tasksMapper.toDTO(task1)).thenReturn(taskFactory.createTaskResponse(1));
-        when(tasksMapper.toDTO(task2)).thenReturn(taskFactory.createTaskResponse(2));
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.COMPLETED), any(), eq(0L), eq(10))).thenReturn(List.of(row));
+        when(tasksMapper.toDTO(row, Set.of())).thenReturn(taskFactory.createTaskResponse(2));
 
         // Act
-        Page<TasksResponseDTO> result = taskService.existsTasksCompleted(page, size);
+        Page<TasksResponseDTO> result = taskService.existsTasksCompleted(0, 10);
 
-        assertThat(result.getContent().get(0).id()).isEqualTo(task1.getId());
-        assertThat(result.getContent().get(1).id()).isEqualTo(task2.getId());
-
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findByUsersIdAndCompletedTrue(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verify(tasksMapper, times(1)).toDTO(task1);
-        verify(tasksMapper, times(1)).toDTO(task2);
+        assertThat(result.getTotalElements()).isEqualTo(1L);
+        verify(tasksRepository, never()).countByUsersIdAndCompletedTrue(any());
     }
 
     @Test
-    void shouldReturnEmptyPageWhenNoCompletedTasks() {
+    void shouldReturnTasksByUserSuccessfully() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
-
-        Page<Tasks> emptyTasksPage = new PageImpl<>(Collections.emptyList());
+        TaskRow row1 = taskFactory.createTaskRow(1);
+        TaskRow row2 = taskFactory.createTaskRow(2);
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findByUsersIdAndCompletedTrue(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(emptyTasksPage);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.ALL), any(), eq(0L), eq(2))).thenReturn(List.of(row1, row2));
+        when(tasksRepository.countByUsersId(currentUser.getId())).thenReturn(2L);
+        when(tasksMapper.toDTO(row1, Set.of())).thenReturn(taskFactory.createTaskResponse(1));
+        when(tasksMapper.toDTO(row2, Set.of())).thenReturn(taskFactory.createTaskResponse(2));
 
         // Act
-        Page<TasksResponseDTO> result = taskService.existsTasksCompleted(page, size);
+        Page<TasksResponseDTO> result = taskService.getTasksByUser(0, 2);
 
+        assertThat(result.getContent().get(0).id()).isEqualTo(row1.id());
+        assertThat(result.getContent().get(1).id()).isEqualTo(row2.id());
 
         verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findByUsersIdAndCompletedTrue(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verifyNoInteractions(tasksMapper);
+        verify(tasksMapper, times(1)).toDTO(row1, Set.of());
+        verify(tasksMapper, times(1)).toDTO(row2, Set.of());
     }
 
     @Test
-    void shouldReturnTasksByUserSuccessfully() {
+    void shouldReturnEmptyPageWhenUserHasNoTasks() {
         // Arrange
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
 
-        Tasks task1 = taskFactory.createTask(1);
-        task1.setUsers(currentUser);
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.ALL), any(), eq(0L), eq(2))).thenReturn(List.of());
+
+        // Act
+        Page<TasksResponseDTO> result = taskService.getTasksByUser(0, 2);
 
-        Tasks task2 = taskFactory.createTask(2);
-        task2.setUsers(currentUser);
+        assertThat(result.getContent().isEmpty()).isTrue();
+        verifyNoInteractions(tasksMapper);
+    }
 
-        List<Tasks> tasksList = List.of(task1, task2);
-        Page<Tasks> tasksPage = new PageImpl<>(tasksList);
+    @Test
+    void shouldReturnSliceWithoutCountingWhenTotalIsSuppressed() {
+        Users currentUser = usersFactory.createUser(1);
+        TaskRow row1 = taskFactory.createTaskRow(1);
+        TaskRow row2 = taskFactory.createTaskRow(2);
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findAllByUsersId(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(tasksPage);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.PENDING), any(), eq(0L), eq(2)))
+                .thenReturn(List.of(row1, row2));
+        when(tasksMapper.toDTO(row1, Set.of())).thenReturn(taskFactory.createTaskResponse(1));
 
-        when(tasksMapper.toDTO(task1)).thenReturn(taskFactory.createTaskResponse(1));
-        when(tasksMapper.toDTO(task2)).thenReturn(taskFactory.createTaskResponse(2));
+        Slice<TasksResponseDTO> result = taskService.listTasksWithoutTotal(TaskListFilter.PENDING, 0, 1, false);
 
-        // Act
-        Page<TasksResponseDTO> result = taskService.getTasksByUser(page, size);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.getNumberOfElements()).isEqualTo(1);
+        assertThat(result).isNotInstanceOf(Page.class);
+        verify(tasksRepository, never()).countByUsersIdAndCompletedFalse(any());
+        verifyNoInteractions(taskCountCache);
+    }
 
-        assertThat(result.getContent().get(0).id()).isEqualTo(task1.getId());
-        assertThat(result.getContent().get(1).id()).isEqualTo(task2.getId());
+    @Test
+    void shouldUseCachedCountForApproximateTotal() {
+        Users currentUser = usersFactory.createUser(1);
+        TaskRow row = taskFactory.createTaskRow(1);
 
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findAllByUsersId(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verify(tasksMapper, times(1)).toDTO(task1);
-        verify(tasksMapper, times(1)).toDTO(task2);
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.findRows(eq(currentUser.getId()), eq(TaskListFilter.ALL), any(), eq(0L), eq(2)))
+                .thenReturn(List.of(row));
+        when(tasksMapper.toDTO(row, Set.of())).thenReturn(taskFactory.createTaskResponse(1));
+        when(taskCountCache.get(eq(currentUser.getId()), eq(TaskListFilter.ALL), any())).thenReturn(42L);
+
+        Slice<TasksResponseDTO> result = taskService.listTasksWithoutTotal(TaskListFilter.ALL, 0, 1, true);
+
+        assertThat(((Page<TasksResponseDTO>) result).getTotalElements()).isEqualTo(42L);
     }
 
     @Test
-    void shouldReturnEmptyPageWhenUserHasNoTasks() {
-        // Arrange
+    void shouldScrollTasksAndReturnCursorOfLastTask() {
         Users currentUser = usersFactory.createUser(1);
-        int page = 0;
-        int size = 2;
+        TaskRow row1 = taskFactory.createTaskRow(1);
+        TaskRow row2 = taskFactory.createTaskRow(2);
+        TaskRow row3 = taskFactory.createTaskRow(3);
+
+        when(tokenService.getCurrentUser()).thenReturn(currentUser);
+        when(tasksRepository.findRowsAfter(eq(currentUser.getId()), eq(TaskListFilter.PENDING), any(), isNull(), eq(3)))
+                .thenReturn(List.of(row1, row2, row3));
+        when(tasksMapper.toDTO(row1, Set.of())).thenReturn(taskFactory.createTaskResponse(1));
+        when(tasksMapper.toDTO(row2, Set.of())).thenReturn(taskFactory.createTaskResponse(2));
+
+        TasksWindowDTO result = taskService.scrollTasks(TaskListFilter.PENDING, null, 2);
 
-        Page<Tasks> emptyTasksPage = new PageImpl<>(Collections.emptyList());
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.content().size()).isEqualTo(2);
+        assertThat(TaskCursor.decode(result.next())).isEqualTo(new TaskCursor(row2.dateExpiration(), row2.id()));
+    }
+
+    @Test
+    void shouldSeekPastGivenCursorAndStopAtLastWindow() {
+        Users currentUser = usersFactory.createUser(1);
+        TaskRow row = taskFactory.createTaskRow(4);
+        TaskCursor cursor = new TaskCursor(LocalDate.now(), UUID.randomUUID());
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(tasksRepository.findAllByUsersId(
-                currentUser.getId(),
-                PageRequest.of(page, size, Sort.by("dateExpiration").descending())
-        )).thenReturn(emptyTasksPage);
+        when(tasksRepository.findRowsAfter(eq(currentUser.getId()), eq(TaskListFilter.ALL), any(), eq(cursor), eq(3)))
+                .thenReturn(List.of(row));
+        when(tasksMapper.toDTO(row, Set.of())).thenReturn(taskFactory.createTaskResponse(4));
 
-        // Act
-        Page<TasksResponseDTO> result = taskService.getTasksByUser(page, size);
+        TasksWindowDTO result = taskService.scrollTasks(TaskListFilter.ALL, cursor.encode(), 2);
 
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.next()).isNull();
+    }
 
-        verify(tokenService, times(1)).getCurrentUser();
-        verify(tasksRepository, times(1))
-                .findAllByUsersId(currentUser.getId(), PageRequest.of(page, size, Sort.by("dateExpiration").descending()));
-        verifyNoInteractions(tasksMapper);
+    @Test
+    void shouldRejectMalformedCursor() {
+        when(tokenService.getCurrentUser()).thenReturn(usersFactory.createUser(1));
+
+        assertThatThrownBy(() -> taskService.scrollTasks(TaskListFilter.ALL, "not-a-cursor", 2))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(tasksRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, 101})
+    void shouldRejectWindowSizeOutOfRange(int size) {
+        assertThatThrownBy(() -> taskService.scrollTasks(TaskListFilter.ALL, null, size))
+                .isInstanceOf(InvalidPageSizeException.class);
+        verifyNoInteractions(tasksRepository);
     }
 
     @Test
@@ -657,5 +771,7 @@ public class TaskServiceTest {
         verify(tasksRepository, times(1)).deleteOldCompleted(currentUser.getId(), limitDate);
     }
 
-
+    private static CategoryCatalog.Snapshot catalogOf(Categories category) {
+        return CategoryCatalog.Snapshot.of(1, List.of(new CategoriesResponseDTO(category.getId(), category.getName())), new ObjectMapper());
+    }
 }
@@ -2,11 +2,13 @@ package com.example.apitask.services;
 
 import com.example.apitask.dtos.users.UsersRequestDTO;
 import com.example.apitask.dtos.users.UsersResponseDTO;
+import com.example.apitask.dtos.users.UsersStreakRow;
 import com.example.apitask.email.EmailPublisher;
 import com.example.apitask.exceptions.EmailAlreadyExistsException;
 import com.example.apitask.exceptions.ResourceNotFoundException;
 import com.example.apitask.factories.UserFactory;
 import com.example.apitask.helpers.HashPassword;
+import com.example.apitask.infra.security.PrincipalCache;
 import com.example.apitask.infra.security.TokenService;
 import com.example.apitask.mappers.UsersMapper;
 import com.example.apitask.models.Users;
@@ -20,7 +22,9 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -54,13 +58,22 @@ public class UserServiceTest {
     @Mock
     private EmailPublisher emailPublisher;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private UserFactory usersFactory;
 
     @BeforeEach
     void setUp() {
         //Procure nessa class(this) todos os campos que tem a nomenclatura de @Mock e inicialize ele!
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(usersRepository, usersMapper, hashPassword, tokenService, emailPublisher);
+        userService = new UserService(usersRepository, usersMapper, hashPassword, tokenService, emailPublisher, principalCache, leaderboardService, transactionManager, Clock.systemDefaultZone());
         usersFactory = new UserFactory();
     }
 
@@ -81,6 +94,8 @@ public class UserServiceTest {
         assertThat(result.email()).isEqualTo(requestDTO.email());
         verify(usersRepository).save(userEntity);
         verify(hashPassword).hashEncode(requestDTO.password());
+        verify(emailPublisher).sendWelcomeEmail(userEntity);
+        verify(transactionManager).commit(any());
     }
 
     @Test
@@ -164,6 +179,8 @@ public class UserServiceTest {
         userService.deleteUserById(user.getId());
 
         verify(usersRepository, times(1)).deleteById(user.getId());
+        verify(principalCache, times(1)).invalidateUser(user.getId());
+        verify(leaderboardService, times(1)).remove(user.getId());
 
         verifyNoMoreInteractions(usersRepository, usersMapper, hashPassword, tokenService);
     }
@@ -173,22 +190,16 @@ public class UserServiceTest {
         Users currentUser = new Users();
         currentUser.setId(UUID.randomUUID());
 
-        Users userFromRepo = new Users();
-        userFromRepo.setId(currentUser.getId());
-        userFromRepo.setStreakData(LocalDate.now().minusDays(1));
-        userFromRepo.setPointers(5);
-
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(usersRepository.findById(currentUser.getId())).thenReturn(Optional.of(userFromRepo));
-        when(usersRepository.findPointersByUsersId(currentUser.getId())).thenReturn(userFromRepo.getPointers());
-        when(usersRepository.save(userFromRepo)).thenReturn(userFromRepo);
+        when(usersRepository.findStreakByUsersId(currentUser.getId()))
+                .thenReturn(Optional.of(new UsersStreakRow(5, LocalDate.now().minusDays(1))));
 
         Integer result = userService.getSequenceByUser();
 
-        assertThat(result).isEqualTo(userFromRepo.getPointers());
-        verify(usersRepository, times(1)).findById(currentUser.getId());
-        verify(usersRepository, times(1)).save(userFromRepo);
-        verify(usersRepository, times(1)).findPointersByUsersId(currentUser.getId());
+        assertThat(result).isEqualTo(5);
+        verify(usersRepository, times(1)).findStreakByUsersId(currentUser.getId());
+        verifyNoMoreInteractions(usersRepository);
+        verifyNoInteractions(principalCache);
     }
 
     @Test
@@ -197,25 +208,16 @@ public class UserServiceTest {
         Users currentUser = new Users();
         currentUser.setId(UUID.randomUUID());
 
-        Users userFromRepo = new Users();
-        userFromRepo.setId(currentUser.getId());
-        userFromRepo.setStreakData(LocalDate.now().minusDays(5));
-        userFromRepo.setPointers(10);
-
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(usersRepository.findById(currentUser.getId())).thenReturn(Optional.of(userFromRepo));
-        when(usersRepository.findPointersByUsersId(currentUser.getId())).thenReturn(0);
-        when(usersRepository.save(userFromRepo)).thenReturn(userFromRepo);
+        when(usersRepository.findStreakByUsersId(currentUser.getId()))
+                .thenReturn(Optional.of(new UsersStreakRow(10, LocalDate.now().minusDays(5))));
 
         // Act
         Integer result = userService.getSequenceByUser();
 
         // Assert
         assertThat(result).isEqualTo(0);
-        assertThat(userFromRepo.getPointers()).isEqualTo(0);
-        verify(usersRepository, times(1)).findById(currentUser.getId());
-        verify(usersRepository, times(1)).save(userFromRepo);
-        verify(usersRepository, times(1)).findPointersByUsersId(currentUser.getId());
+        verify(usersRepository, never()).save(any());
     }
 
     @Test
@@ -225,14 +227,14 @@ public class UserServiceTest {
         currentUser.setId(UUID.randomUUID());
 
         when(tokenService.getCurrentUser()).thenReturn(currentUser);
-        when(usersRepository.findById(currentUser.getId())).thenReturn(Optional.empty());
+        when(usersRepository.findStreakByUsersId(currentUser.getId())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> userService.getSequenceByUser())
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Users not fount");
 
-        verify(usersRepository, times(1)).findById(currentUser.getId());
+        verify(usersRepository, times(1)).findStreakByUsersId(currentUser.getId());
         verifyNoMoreInteractions(usersRepository);
     }
 
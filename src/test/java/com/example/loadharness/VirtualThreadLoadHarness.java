@@ -0,0 +1,182 @@
+package com.example.loadharness;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load harness for the request execution mode. Starts a bare MVC app on Tomcat twice, once on the
+ * platform thread pool and once with {@code spring.threads.virtual.enabled}, and drives each with
+ * the same number of concurrent connections for a fixed time, printing throughput and latency
+ * percentiles. Each request does what a typical task endpoint does: borrows a pooled connection for
+ * one indexed query against an embedded H2 database that stands in for Postgres, then blocks for a
+ * fixed I/O delay that stands in for the network round trips the embedded database does not have.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.loadharness.VirtualThreadLoadHarness -Dexec.args="5000 20 50"}
+ * (connections, seconds per mode, I/O delay in ms); the process needs a file descriptor limit above
+ * twice the connection count. The harness lives outside {@code com.example.apitask} so the
+ * application's component scan never picks up its configuration or controller.
+ */
+public class VirtualThreadLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int ioDelayMs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        System.out.printf("%d connections, %d s per mode, %d ms I/O delay%n", connections, seconds, ioDelayMs);
+        for (boolean virtualThreads : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads, ioDelayMs)) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                Result result = drive(URI.create("http://localhost:" + port + "/load"), connections, Duration.ofSeconds(seconds));
+                System.out.printf("%-9s %8.0f req/s  p50 %6.1f ms  p99 %7.1f ms  errors %d%n",
+                        virtualThreads ? "virtual" : "platform", result.throughput(), result.percentile(0.50), result.percentile(0.99), result.errors());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, int ioDelayMs) {
+        return new SpringApplicationBuilder(LoadApp.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.max-connections=10000",
+                        "server.tomcat.accept-count=1000",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.datasource.hikari.minimum-idle=20",
+                        "spring.datasource.hikari.connection-timeout=3000",
+                        "load.io-delay-ms=" + ioDelayMs)
+                .run();
+    }
+
+    private static Result drive(URI uri, int connections, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> samples = new ArrayList<>(connections);
+        List<int[]> counts = new ArrayList<>(connections);
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                long[] latencies = new long[(int) Math.max(64, duration.toSeconds() * 100)];
+                int[] count = new int[1];
+                samples.add(latencies);
+                counts.add(count);
+                users.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count[0] < latencies.length) {
+                            latencies[count[0]++] = System.nanoTime() - sent;
+                        }
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        int total = counts.stream().mapToInt(count -> count[0]).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            System.arraycopy(samples.get(i), 0, all, offset, counts.get(i)[0]);
+            offset += counts.get(i)[0];
+        }
+        Arrays.sort(all);
+        return new Result(all, total / elapsedSeconds, errors.get());
+    }
+
+    private record Result(long[] sortedLatencies, double throughput, long errors) {
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            DataSourceAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class
+    })
+    @Import(LoadController.class)
+    static class LoadApp {
+    }
+
+    @RestController
+    static class LoadController {
+        private final JdbcTemplate jdbcTemplate;
+        private final long ioDelayMs;
+
+        LoadController(JdbcTemplate jdbcTemplate, @Value("${load.io-delay-ms}") long ioDelayMs) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.ioDelayMs = ioDelayMs;
+            jdbcTemplate.execute("create table if not exists load_tasks (id int primary key, users_id int, completed boolean)");
+            jdbcTemplate.execute("create index if not exists idx_load_tasks_users on load_tasks (users_id)");
+            jdbcTemplate.execute("merge into load_tasks key (id) select x, mod(x, 1000), mod(x, 2) = 0 from system_range(1, 100000)");
+        }
+
+        @GetMapping("/load")
+        Integer load() throws InterruptedException {
+            Integer pending = jdbcTemplate.queryForObject("select count(*) from load_tasks where users_id = ? and completed = false",
+                    Integer.class, ThreadLocalRandom.current().nextInt(1000));
+            Thread.sleep(ioDelayMs);
+            return pending;
+        }
+    }
+}